@@ -0,0 +1,73 @@
+package graphs.shortestpaths;
+
+import graphs.BaseEdge;
+import graphs.Graph;
+import maps.ObjectDoubleHashMap;
+import maps.OpenAddressingHashMap;
+import priorityqueues.ExtrinsicMinPQ;
+import java.util.Map;
+
+/**
+ * Computes shortest paths using A*: Dijkstra's algorithm, with each vertex's priority raised
+ * by a heuristic estimate of its remaining distance to {@code end}.
+ *
+ * The heuristic must be admissible for the results to be shortest paths. Vertices are
+ * re-opened if a shorter path to them turns up after they were settled, so inconsistent
+ * (but admissible) heuristics are still correct, only slower. They do break the monotone
+ * priority queues, though, so only use this with the default queue.
+ *
+ * @see Heuristic
+ * @see DijkstraShortestPathFinder
+ */
+public class AStarShortestPathFinder<G extends Graph<V, E>, V, E extends BaseEdge<V, E>>
+    extends DijkstraShortestPathFinder<G, V, E> {
+
+    private final Heuristic<? super V> heuristic;
+
+    public AStarShortestPathFinder(Heuristic<? super V> heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    protected Map<V, E> constructShortestPathsTree(G graph, V start, V end) {
+        if (end == null) {
+            // No goal to steer towards; fall back to a full shortest-paths tree
+            return super.constructShortestPathsTree(graph, start, null);
+        }
+        Map<V, E> edgeTo = new OpenAddressingHashMap<>();
+        ObjectDoubleHashMap<V> distTo = new ObjectDoubleHashMap<>(Double.POSITIVE_INFINITY);
+        ExtrinsicMinPQ<V> pq = createMinPQ();
+        int settled = 0;
+
+        distTo.putDouble(start, 0.0);
+        pq.add(start, heuristic.estimate(start, end));
+
+        while (!pq.isEmpty()) {
+            V current = pq.removeMin();
+            settled++;
+            if (current.equals(end)) {
+                break;
+            }
+
+            double currentDist = distTo.getDouble(current);
+            for (E edge : graph.outgoingEdgesFrom(current)) {
+                V next = edge.to();
+                double newDist = currentDist + edge.weight();
+                if (newDist < distTo.getDouble(next)) {
+                    distTo.putDouble(next, newDist);
+                    edgeTo.put(next, edge);
+
+                    double priority = newDist + heuristic.estimate(next, end);
+                    if (pq.contains(next)) {
+                        pq.changePriority(next, priority);
+                    } else {
+                        pq.add(next, priority);
+                    }
+                }
+            }
+        }
+
+        lastSettledCount = settled;
+        return edgeTo;
+    }
+}
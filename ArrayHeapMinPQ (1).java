@@ -3,7 +3,8 @@ package priorityqueues;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
-import maps.ChainedHashMap;
+import maps.OpenAddressingHashMap;
+import metrics.Metrics;
 
 /**
  * @see ExtrinsicMinPQ
@@ -14,13 +15,13 @@ public class ArrayHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
     int heapSize;
 
     // New field to track the positions of items in the heap
-    private ChainedHashMap<T, Integer> itemPositions;
+    private OpenAddressingHashMap<T, Integer> itemPositions;
 
     public ArrayHeapMinPQ() {
         items = new ArrayList<>();
         items.add(null); // Dummy node
         heapSize = 0;
-        itemPositions = new ChainedHashMap<>();
+        itemPositions = new OpenAddressingHashMap<>();
     }
 
     private void swap(int a, int b) {
@@ -45,21 +46,37 @@ public class ArrayHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
         heapSize++;
         int addedIndex = items.size() - 1;
         itemPositions.put(item, addedIndex); // Map the item to its position
-        percolateUp(addedIndex);
+        recordSwaps(percolateUp(addedIndex));
     }
 
-    private void percolateUp(int index) {
+    private void recordSwaps(int swaps) {
+        if (Metrics.ENABLED) {
+            Metrics.HEAP_SWAPS.record(swaps);
+        }
+    }
+
+    /**
+     * Returns the number of swaps made.
+     */
+    private int percolateUp(int index) {
+        int swaps = 0;
         while (index > START_INDEX) {
             int parentIndex = index / 2;
             if (items.get(parentIndex).getPriority() <= items.get(index).getPriority()) {
                 break;
             }
             swap(parentIndex, index);
+            swaps++;
             index = parentIndex;
         }
+        return swaps;
     }
 
-    private void percolateDown(int index) {
+    /**
+     * Returns the number of swaps made.
+     */
+    private int percolateDown(int index) {
+        int swaps = 0;
         while (2 * index < items.size()) {
             int leftChildIndex = 2 * index;
             int rightChildIndex = leftChildIndex + 1;
@@ -73,8 +90,10 @@ public class ArrayHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
                 break;
             }
             swap(index, smallest);
+            swaps++;
             index = smallest;
         }
+        return swaps;
     }
 
     @Override
@@ -102,9 +121,11 @@ public class ArrayHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
         itemPositions.put(items.get(START_INDEX).getItem(), START_INDEX); // Update new root position
         items.remove(items.size() - 1);
         heapSize--;
+        int swaps = 0;
         if (items.size() > START_INDEX) {
-            percolateDown(START_INDEX);
+            swaps = percolateDown(START_INDEX);
         }
+        recordSwaps(swaps);
         return minItem;
     }
 
@@ -117,9 +138,9 @@ public class ArrayHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
         double oldPriority = items.get(index).getPriority();
         items.get(index).setPriority(priority);
         if (priority < oldPriority) {
-            percolateUp(index);
+            recordSwaps(percolateUp(index));
         } else {
-            percolateDown(index);
+            recordSwaps(percolateDown(index));
         }
     }
 
@@ -0,0 +1,297 @@
+package mazes.logic.carvers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Carves large batches of seeded rectangular grid mazes in parallel, with Kruskal's algorithm.
+ *
+ * Each job gets its own {@link SplittableRandom} seeded from the job alone, so a job carves
+ * exactly the same maze no matter how many threads run or which one picks it up. Jobs reach the
+ * workers through a small bounded queue: when the workers fall behind, the caller blocks
+ * instead of queuing up the whole batch, and each finished maze is handed to a consumer rather
+ * than collected, so memory stays bounded however long the batch is.
+ *
+ * Mazes are carved straight on the grid's int coordinates, without building rooms, walls or a
+ * graph. Walls are numbered as described by {@link Maze}, and each maze is reported as the set
+ * of wall numbers it removes. A job carves the same maze as the first maze of
+ * {@link KruskalMazeCarver#matchingBatchGenerator} with the same seed, on a grid of the same
+ * size.
+ */
+public class BatchMazeGenerator {
+    // Random keys keep the top 53 bits, which SplittableRandom.nextDouble() would scale by 2^-53
+    private static final int KEY_SHIFT = Long.SIZE - 53;
+
+    private final int threadCount;
+    private final int queueCapacity;
+
+    /**
+     * Creates a generator with one worker per available processor.
+     */
+    public BatchMazeGenerator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchMazeGenerator(int threadCount) {
+        this(threadCount, 2 * threadCount);
+    }
+
+    /**
+     * @param threadCount the number of worker threads. Must be >= 1.
+     * @param queueCapacity how many jobs may wait for a worker before the caller blocks.
+     *                      Must be >= 1.
+     */
+    public BatchMazeGenerator(int threadCount, int queueCapacity) {
+        if (threadCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Thread count and queue capacity must be positive.");
+        }
+        this.threadCount = threadCount;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * A maze to carve: a {@code width} by {@code height} grid of rooms and the seed to carve it
+     * with.
+     */
+    public static final class Job {
+        private final int width;
+        private final int height;
+        private final long seed;
+
+        public Job(int width, int height, long seed) {
+            if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid maze dimensions: " + width + "x" + height);
+            }
+            this.width = width;
+            this.height = height;
+            this.seed = seed;
+        }
+
+        public int width() {
+            return width;
+        }
+
+        public int height() {
+            return height;
+        }
+
+        public long seed() {
+            return seed;
+        }
+
+        /**
+         * Returns the number of walls between adjacent rooms in the grid.
+         */
+        public int wallCount() {
+            return IntKruskal.gridWallCount(width, height);
+        }
+    }
+
+    /**
+     * A carved maze.
+     *
+     * Walls are numbered with all east walls first, row by row: the wall east of room
+     * {@code (x, y)} is {@code y * (width - 1) + x}. The wall south of room {@code (x, y)}
+     * follows them as {@code (width - 1) * height + y * width + x}.
+     */
+    public static final class Maze {
+        private final int index;
+        private final Job job;
+        private final BitSet removedWalls;
+
+        Maze(int index, Job job, BitSet removedWalls) {
+            this.index = index;
+            this.job = job;
+            this.removedWalls = removedWalls;
+        }
+
+        /**
+         * Returns the position of this maze's job in the batch.
+         */
+        public int index() {
+            return index;
+        }
+
+        public Job job() {
+            return job;
+        }
+
+        /**
+         * Returns the numbers of the removed walls. The returned set must not be modified.
+         */
+        public BitSet removedWalls() {
+            return removedWalls;
+        }
+
+        public boolean isEastWallRemoved(int x, int y) {
+            return removedWalls.get(IntKruskal.eastWall(job.width, x, y));
+        }
+
+        public boolean isSouthWallRemoved(int x, int y) {
+            return removedWalls.get(IntKruskal.southWall(job.width, job.height, x, y));
+        }
+    }
+
+    /**
+     * How a batch went.
+     */
+    public static final class Report {
+        private final int mazeCount;
+        private final long elapsedNanos;
+        private final long peakHeapBytes;
+
+        Report(int mazeCount, long elapsedNanos, long peakHeapBytes) {
+            this.mazeCount = mazeCount;
+            this.elapsedNanos = elapsedNanos;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+
+        public int mazeCount() {
+            return mazeCount;
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double mazesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : mazeCount * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Returns the sum of each heap memory pool's peak usage during the batch, or -1 if the
+         * JVM does not report it. The pools may peak at different times, so this is an upper
+         * bound on the true peak.
+         */
+        public long peakHeapBytes() {
+            return peakHeapBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d mazes in %.3f s (%.1f mazes/s), peak heap %d MB",
+                mazeCount, elapsedNanos / 1e9, mazesPerSecond(), peakHeapBytes >> 20);
+        }
+    }
+
+    /**
+     * Carves every job and passes each maze to {@code consumer} as soon as it is done. The
+     * consumer is called from the worker threads, in no particular order, so it must be
+     * thread-safe; {@link Maze#index()} tells which job a maze came from.
+     *
+     * @throws IllegalStateException if carving a maze or consuming it failed; the rest of the
+     *                               batch is abandoned
+     */
+    public Report generate(List<Job> jobs, Consumer<? super Maze> consumer) throws InterruptedException {
+        List<MemoryPoolMXBean> heapPools = heapPools();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long start = System.nanoTime();
+
+        BlockingQueue<Integer> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        ExecutorService workers = Executors.newFixedThreadPool(threadCount);
+        List<Future<?>> running = new ArrayList<>();
+        try {
+            for (int t = 0; t < threadCount; t++) {
+                running.add(workers.submit(() -> work(jobs, queue, consumer, failure)));
+            }
+            for (int i = 0; i < jobs.size() && failure.get() == null; i++) {
+                // Blocks while the queue is full, so jobs are only handed out as workers free up
+                queue.put(i);
+            }
+            for (int t = 0; t < threadCount; t++) {
+                queue.put(-1);
+            }
+            for (Future<?> worker : running) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    failure.compareAndSet(null, e.getCause());
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Maze generation failed", failure.get());
+        }
+
+        long elapsed = System.nanoTime() - start;
+        return new Report(jobs.size(), elapsed, peakHeapBytes(heapPools));
+    }
+
+    private static void work(List<Job> jobs, BlockingQueue<Integer> queue, Consumer<? super Maze> consumer,
+                             AtomicReference<Throwable> failure) {
+        IntKruskal kruskal = new IntKruskal();
+        while (true) {
+            int index;
+            try {
+                index = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (index < 0) {
+                return;
+            }
+            if (failure.get() != null) {
+                // Drain the queue so the caller is never left blocked on it
+                continue;
+            }
+            try {
+                Job job = jobs.get(index);
+                consumer.accept(new Maze(index, job, carve(job, kruskal)));
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        }
+    }
+
+    /**
+     * Carves a single job on the calling thread. Gives the same maze as the job would get in
+     * any batch.
+     */
+    public static Maze carve(Job job) {
+        return new Maze(0, job, carve(job, new IntKruskal()));
+    }
+
+    private static BitSet carve(Job job, IntKruskal kruskal) {
+        kruskal.resetGrid(job.width, job.height);
+        SplittableRandom random = new SplittableRandom(job.seed);
+        return kruskal.carve(() -> random.nextLong() >>> KEY_SHIFT);
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    private static long peakHeapBytes(List<MemoryPoolMXBean> heapPools) {
+        if (heapPools.isEmpty()) {
+            return -1;
+        }
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+}
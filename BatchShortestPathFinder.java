@@ -0,0 +1,215 @@
+package graphs.shortestpaths;
+
+import graphs.BaseEdge;
+import graphs.CompactGraph;
+import priorityqueues.IntMinHeap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Answers batches of point-to-point shortest path queries against one frozen
+ * {@link CompactGraph}, spreading them across the threads of a fork-join pool.
+ *
+ * Each worker thread keeps its own scratch arrays (distances, tree arcs, a heap) sized to the
+ * graph and reuses them for every query it runs; entries are invalidated by bumping a
+ * per-query stamp instead of clearing the arrays. The only allocations per query are the
+ * returned path and its edge list.
+ *
+ * Each query runs Dijkstra's algorithm with an early exit, like
+ * {@link DijkstraShortestPathFinder}.
+ */
+public class BatchShortestPathFinder<V, E extends BaseEdge<V, E>> {
+    // Below this many queries, a task runs them itself instead of splitting
+    private static final int SEQUENTIAL_THRESHOLD = 8;
+
+    private final CompactGraph<V, E> graph;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Scratch> scratch;
+
+    public BatchShortestPathFinder(CompactGraph<V, E> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public BatchShortestPathFinder(CompactGraph<V, E> graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(graph.vertexCount()));
+    }
+
+    /**
+     * A (start, end) pair to find a shortest path between.
+     */
+    public static final class Query<V> {
+        private final V start;
+        private final V end;
+
+        public Query(V start, V end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public V start() {
+            return start;
+        }
+
+        public V end() {
+            return end;
+        }
+    }
+
+    /**
+     * The answers to a batch, in the same order as its queries.
+     */
+    public static final class BatchResult<V, E extends BaseEdge<V, E>> {
+        private final List<ShortestPath<V, E>> paths;
+        private final long elapsedNanos;
+
+        BatchResult(List<ShortestPath<V, E>> paths, long elapsedNanos) {
+            this.paths = paths;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<ShortestPath<V, E>> paths() {
+            return paths;
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double queriesPerSecond() {
+            return elapsedNanos == 0 ? Double.POSITIVE_INFINITY : paths.size() * 1e9 / elapsedNanos;
+        }
+    }
+
+    public BatchResult<V, E> findShortestPaths(List<Query<V>> queries) {
+        @SuppressWarnings("unchecked")
+        ShortestPath<V, E>[] results = (ShortestPath<V, E>[]) new ShortestPath[queries.size()];
+        long startNanos = System.nanoTime();
+        pool.invoke(new QueryTask(queries, results, 0, queries.size()));
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return new BatchResult<>(Collections.unmodifiableList(Arrays.asList(results)), elapsedNanos);
+    }
+
+    /**
+     * Answers a single query on the calling thread.
+     */
+    public ShortestPath<V, E> findShortestPath(V start, V end) {
+        return scratch.get().findShortestPath(start, end);
+    }
+
+    private class QueryTask extends RecursiveAction {
+        private final List<Query<V>> queries;
+        private final ShortestPath<V, E>[] results;
+        private final int from;
+        private final int to;
+
+        QueryTask(List<Query<V>> queries, ShortestPath<V, E>[] results, int from, int to) {
+            this.queries = queries;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                Scratch local = scratch.get();
+                for (int i = from; i < to; i++) {
+                    Query<V> query = queries.get(i);
+                    results[i] = local.findShortestPath(query.start(), query.end());
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new QueryTask(queries, results, from, mid), new QueryTask(queries, results, mid, to));
+        }
+    }
+
+    /**
+     * Per-thread search state. An entry of {@code distTo}/{@code arcTo}/{@code parents} is only
+     * meaningful if its {@code stamps} entry equals the current query's stamp.
+     */
+    private class Scratch {
+        private final double[] distTo;
+        private final int[] arcTo;
+        private final int[] parents;
+        private final int[] stamps;
+        private final IntMinHeap heap;
+        private int stamp;
+
+        Scratch(int vertexCount) {
+            this.distTo = new double[vertexCount];
+            this.arcTo = new int[vertexCount];
+            this.parents = new int[vertexCount];
+            this.stamps = new int[vertexCount];
+            this.heap = new IntMinHeap(vertexCount);
+            this.stamp = 0;
+        }
+
+        ShortestPath<V, E> findShortestPath(V start, V end) {
+            if (start.equals(end)) {
+                return new ShortestPath.SingleVertex<>(start);
+            }
+            int source = graph.idOf(start);
+            int target = graph.idOf(end);
+            if (source < 0 || target < 0) {
+                return new ShortestPath.Failure<>();
+            }
+
+            nextStamp();
+            heap.clear();
+            visit(source, 0.0, -1, -1);
+            heap.addOrUpdate(source, 0.0);
+
+            while (!heap.isEmpty()) {
+                int current = heap.removeMin();
+                if (current == target) {
+                    break;
+                }
+                for (int arc = graph.arcStart(current); arc < graph.arcEnd(current); arc++) {
+                    int next = graph.arcTarget(arc);
+                    double newDist = distTo[current] + graph.arcWeight(arc);
+                    if (stamps[next] != stamp || newDist < distTo[next]) {
+                        visit(next, newDist, arc, current);
+                        heap.addOrUpdate(next, newDist);
+                    }
+                }
+            }
+
+            if (stamps[target] != stamp) {
+                return new ShortestPath.Failure<>();
+            }
+            int length = 0;
+            for (int at = target; at != source; at = parents[at]) {
+                length++;
+            }
+            List<E> path = new ArrayList<>(length);
+            for (int at = target; at != source; at = parents[at]) {
+                path.add(graph.arcEdge(arcTo[at]));
+            }
+            Collections.reverse(path);
+            return new ShortestPath.Success<>(path);
+        }
+
+        private void visit(int vertex, double dist, int arc, int parent) {
+            stamps[vertex] = stamp;
+            distTo[vertex] = dist;
+            arcTo[vertex] = arc;
+            parents[vertex] = parent;
+        }
+
+        private void nextStamp() {
+            stamp++;
+            if (stamp == 0) {
+                // Wrapped around: old stamps could collide with new ones, so wipe them
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+        }
+    }
+}
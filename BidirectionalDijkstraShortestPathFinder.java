@@ -0,0 +1,108 @@
+package graphs.shortestpaths;
+
+import graphs.BaseEdge;
+import graphs.Graph;
+import priorityqueues.ExtrinsicMinPQ;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes shortest paths by running Dijkstra's algorithm forwards from {@code start} and
+ * backwards from {@code end} at the same time, stopping once the two searches meet.
+ *
+ * The backward search follows outgoing edges in reverse, so the graph must be symmetric:
+ * every edge {@code u -> v} needs a twin {@code v -> u} of the same weight. Undirected
+ * graphs such as {@code MazeGraph} satisfy this.
+ *
+ * @see DijkstraShortestPathFinder
+ */
+public class BidirectionalDijkstraShortestPathFinder<G extends Graph<V, E>, V, E extends BaseEdge<V, E>>
+    extends DijkstraShortestPathFinder<G, V, E> {
+
+    @Override
+    protected Map<V, E> constructShortestPathsTree(G graph, V start, V end) {
+        if (end == null) {
+            return super.constructShortestPathsTree(graph, start, null);
+        }
+        Map<V, E> edgeTo = new HashMap<>();
+        if (start.equals(end)) {
+            lastSettledCount = 0;
+            return edgeTo;
+        }
+
+        // Maps a vertex to its neighbor one step closer to `end` in the backward search
+        Map<V, V> backwardNext = new HashMap<>();
+        Map<V, Double> distForward = new HashMap<>();
+        Map<V, Double> distBackward = new HashMap<>();
+        Set<V> settledForward = new HashSet<>();
+        Set<V> settledBackward = new HashSet<>();
+        ExtrinsicMinPQ<V> pqForward = createMinPQ();
+        ExtrinsicMinPQ<V> pqBackward = createMinPQ();
+
+        distForward.put(start, 0.0);
+        distBackward.put(end, 0.0);
+        pqForward.add(start, 0.0);
+        pqBackward.add(end, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        V meet = null;
+
+        while (!pqForward.isEmpty() && !pqBackward.isEmpty()) {
+            double topForward = distForward.get(pqForward.peekMin());
+            double topBackward = distBackward.get(pqBackward.peekMin());
+            // Every path not yet seen is at least this long
+            if (topForward + topBackward >= best) {
+                break;
+            }
+
+            boolean forward = topForward <= topBackward;
+            ExtrinsicMinPQ<V> pq = forward ? pqForward : pqBackward;
+            Map<V, Double> dist = forward ? distForward : distBackward;
+            Map<V, Double> otherDist = forward ? distBackward : distForward;
+            Set<V> settled = forward ? settledForward : settledBackward;
+
+            V current = pq.removeMin();
+            settled.add(current);
+            double currentDist = dist.get(current);
+
+            for (E edge : graph.outgoingEdgesFrom(current)) {
+                V next = edge.to();
+                double newDist = currentDist + edge.weight();
+                if (!dist.containsKey(next) || newDist < dist.get(next)) {
+                    dist.put(next, newDist);
+                    if (forward) {
+                        edgeTo.put(next, edge);
+                    } else {
+                        backwardNext.put(next, current);
+                    }
+                    if (pq.contains(next)) {
+                        pq.changePriority(next, newDist);
+                    } else if (!settled.contains(next)) {
+                        pq.add(next, newDist);
+                    }
+                }
+                Double remaining = otherDist.get(next);
+                if (remaining != null && dist.get(next) + remaining < best) {
+                    best = dist.get(next) + remaining;
+                    meet = next;
+                }
+            }
+        }
+
+        lastSettledCount = settledForward.size() + settledBackward.size();
+        if (meet == null) {
+            // The searches never met, so `end` is unreachable
+            return edgeTo;
+        }
+
+        // Splice the backward half onto the forward tree, flipping each edge to point towards `end`
+        for (V at = meet; !at.equals(end); ) {
+            V next = backwardNext.get(at);
+            edgeTo.put(next, UndirectedEdges.edgeBetween(graph, at, next));
+            at = next;
+        }
+        return edgeTo;
+    }
+}
@@ -0,0 +1,267 @@
+package graphs.minspantrees;
+
+import disjointsets.ConcurrentDisjointSets;
+import graphs.BaseEdge;
+import graphs.CompactGraph;
+import graphs.KruskalGraph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Computes minimum spanning trees using Borůvka's algorithm, in parallel.
+ *
+ * Each round, every component picks its cheapest outgoing edge and all of those edges are
+ * added at once, at least halving the number of components. Both the search for cheapest
+ * edges and the merging are split across the threads of a fork-join pool; components live in
+ * a lock-free {@link ConcurrentDisjointSets}, and each component's current best edge is kept
+ * in an {@link AtomicIntegerArray} updated by compare-and-set.
+ *
+ * Edges are compared by weight and then by their index in {@code allEdges()}, the same order
+ * {@link KruskalMinimumSpanningTreeFinder} uses, so both return the same tree, with its edges
+ * in the same order.
+ * @see MinimumSpanningTreeFinder for more documentation.
+ */
+public class BoruvkaMinimumSpanningTreeFinder<G extends KruskalGraph<V, E>, V, E extends BaseEdge<V, E>>
+    implements MinimumSpanningTreeFinder<G, V, E> {
+    // Below this many edges or vertices, a task does the work itself instead of splitting
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+    private static final int NONE = -1;
+
+    private final ForkJoinPool pool;
+
+    public BoruvkaMinimumSpanningTreeFinder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public BoruvkaMinimumSpanningTreeFinder(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public MinimumSpanningTree<V, E> findMinimumSpanningTree(G graph) {
+        // Number the vertices and edges, reusing a compact graph's ids when there is one
+        List<E> edges;
+        int vertexCount;
+        int[] sources;
+        int[] targets;
+        if (graph instanceof CompactGraph) {
+            @SuppressWarnings("unchecked")
+            CompactGraph<V, E> compactGraph = (CompactGraph<V, E>) graph;
+            vertexCount = compactGraph.vertexCount();
+            int edgeCount = compactGraph.edgeCount();
+            edges = new ArrayList<>(edgeCount);
+            sources = new int[edgeCount];
+            targets = new int[edgeCount];
+            for (int i = 0; i < edgeCount; i++) {
+                edges.add(compactGraph.edge(i));
+                sources[i] = compactGraph.edgeSource(i);
+                targets[i] = compactGraph.edgeTarget(i);
+            }
+        } else {
+            Map<V, Integer> vertexIds = new HashMap<>();
+            for (V vertex : graph.allVertices()) {
+                vertexIds.put(vertex, vertexIds.size());
+            }
+            vertexCount = vertexIds.size();
+            edges = new ArrayList<>(graph.allEdges());
+            sources = new int[edges.size()];
+            targets = new int[edges.size()];
+            for (int i = 0; i < edges.size(); i++) {
+                sources[i] = requireId(vertexIds, edges.get(i).from());
+                targets[i] = requireId(vertexIds, edges.get(i).to());
+            }
+        }
+
+        if (vertexCount == 0) {
+            return new MinimumSpanningTree.Success<V, E>(new ArrayList<>());
+        }
+
+        double[] weights = new double[edges.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = edges.get(i).weight();
+        }
+
+        ConcurrentDisjointSets<V> components = new ConcurrentDisjointSets<>(vertexCount);
+        AtomicIntegerArray cheapest = new AtomicIntegerArray(vertexCount);
+        for (int i = 0; i < vertexCount; i++) {
+            cheapest.set(i, NONE);
+        }
+        boolean[] inTree = new boolean[edges.size()];
+        int treeSize = 0;
+
+        // Edges that still joined two different components as of the last round
+        int[] live = new int[edges.size()];
+        for (int i = 0; i < live.length; i++) {
+            live[i] = i;
+        }
+        int liveCount = live.length;
+        int[] nextLive = new int[edges.size()];
+        boolean[] keep = new boolean[edges.size()];
+
+        while (treeSize < vertexCount - 1 && liveCount > 0) {
+            // Find each component's cheapest outgoing edge, marking the ones that went internal
+            int[] liveEdges = live;
+            forEach(liveCount, i -> {
+                int edge = liveEdges[i];
+                int root1 = components.findSet(sources[edge]);
+                int root2 = components.findSet(targets[edge]);
+                keep[i] = root1 != root2;
+                if (keep[i]) {
+                    offer(cheapest, root1, edge, weights);
+                    offer(cheapest, root2, edge, weights);
+                }
+            });
+
+            // Add them all; an edge chosen by both of its components only merges once
+            AtomicInteger merged = new AtomicInteger();
+            forEach(vertexCount, vertex -> {
+                int edge = cheapest.get(vertex);
+                if (edge != NONE) {
+                    cheapest.set(vertex, NONE);
+                    if (components.union(sources[edge], targets[edge])) {
+                        inTree[edge] = true;
+                        merged.incrementAndGet();
+                    }
+                }
+            });
+            if (merged.get() == 0) {
+                break;
+            }
+            treeSize += merged.get();
+
+            // Drop the edges marked internal; ones this round's merges made internal go next round
+            liveCount = compact(live, liveCount, keep, nextLive);
+            int[] temp = live;
+            live = nextLive;
+            nextLive = temp;
+        }
+
+        if (treeSize != vertexCount - 1) {
+            return new MinimumSpanningTree.Failure<V, E>();
+        }
+
+        // List the tree edges in Kruskal's order: by weight, then by index
+        int[] treeEdges = new int[treeSize];
+        double[] treeWeights = new double[treeSize];
+        int count = 0;
+        for (int i = 0; i < inTree.length; i++) {
+            if (inTree[i]) {
+                treeEdges[count] = i;
+                treeWeights[count] = weights[i];
+                count++;
+            }
+        }
+        LazyEdgeOrder order = new LazyEdgeOrder(treeWeights);
+        List<E> mstEdges = new ArrayList<>(treeEdges.length);
+        while (order.hasNext()) {
+            mstEdges.add(edges.get(treeEdges[order.next()]));
+        }
+        return new MinimumSpanningTree.Success<V, E>(mstEdges);
+    }
+
+    private static <V> int requireId(Map<V, Integer> vertexIds, V vertex) {
+        Integer id = vertexIds.get(vertex);
+        if (id == null) {
+            throw new IllegalArgumentException("Edge endpoint is not in allVertices(): " + vertex);
+        }
+        return id;
+    }
+
+    /**
+     * Copies the entries of {@code from[0, n)} whose {@code keep} flag is set into {@code to},
+     * in order, and returns how many were kept. Chunks are counted in parallel, offset by a
+     * prefix sum over the chunk counts, then copied in parallel.
+     */
+    private int compact(int[] from, int n, boolean[] keep, int[] to) {
+        int chunkCount = (n + SEQUENTIAL_THRESHOLD - 1) / SEQUENTIAL_THRESHOLD;
+        int[] offsets = new int[chunkCount + 1];
+        forEach(chunkCount, 1, chunk -> {
+            int end = Math.min(n, (chunk + 1) * SEQUENTIAL_THRESHOLD);
+            int kept = 0;
+            for (int i = chunk * SEQUENTIAL_THRESHOLD; i < end; i++) {
+                if (keep[i]) {
+                    kept++;
+                }
+            }
+            offsets[chunk + 1] = kept;
+        });
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            offsets[chunk + 1] += offsets[chunk];
+        }
+        forEach(chunkCount, 1, chunk -> {
+            int end = Math.min(n, (chunk + 1) * SEQUENTIAL_THRESHOLD);
+            int out = offsets[chunk];
+            for (int i = chunk * SEQUENTIAL_THRESHOLD; i < end; i++) {
+                if (keep[i]) {
+                    to[out++] = from[i];
+                }
+            }
+        });
+        return offsets[chunkCount];
+    }
+
+    /**
+     * Makes {@code edge} the root's cheapest edge if it beats the current one.
+     */
+    private static void offer(AtomicIntegerArray cheapest, int root, int edge, double[] weights) {
+        while (true) {
+            int current = cheapest.get(root);
+            if (current != NONE && !lighter(edge, current, weights)) {
+                return;
+            }
+            if (cheapest.compareAndSet(root, current, edge)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean lighter(int edge1, int edge2, double[] weights) {
+        return weights[edge1] < weights[edge2] || (weights[edge1] == weights[edge2] && edge1 < edge2);
+    }
+
+    private void forEach(int n, IntConsumer action) {
+        forEach(n, SEQUENTIAL_THRESHOLD, action);
+    }
+
+    /**
+     * Runs {@code action} on every index in {@code [0, n)}, splitting until ranges are no
+     * longer than {@code threshold}.
+     */
+    private void forEach(int n, int threshold, IntConsumer action) {
+        pool.invoke(new RangeTask(0, n, threshold, action));
+    }
+
+    private static class RangeTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final IntConsumer action;
+
+        RangeTask(int from, int to, int threshold, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, mid, threshold, action), new RangeTask(mid, to, threshold, action));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package priorityqueues;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import maps.OpenAddressingHashMap;
+
+/**
+ * A monotone priority queue in the style of Dial's algorithm: a circular array of buckets,
+ * each covering a range of {@code bucketWidth} priorities.
+ *
+ * Removing the minimum walks forward from the current bucket to the next non-empty one and
+ * takes the smallest priority in it, so results are exact even when priorities are not
+ * multiples of the bucket width. It works best when the spread of priorities in the queue
+ * at any time (for Dijkstra, the largest edge weight) covers a modest number of buckets;
+ * the ring grows if an item lands past its end.
+ *
+ * As with {@link RadixHeapMinPQ}, priorities may never drop below the bucket of the last
+ * removed priority.
+ *
+ * @see ExtrinsicMinPQ
+ */
+public class BucketMinPQ<T> implements ExtrinsicMinPQ<T> {
+    private static final int DEFAULT_INITIAL_BUCKET_COUNT = 64;
+
+    private final double bucketWidth;
+    private List<List<Node<T>>> ring;
+    private final OpenAddressingHashMap<T, Node<T>> nodes;
+    // Quantized priority of the bucket the cursor is on
+    private long cursor;
+    private int size;
+
+    /**
+     * @param bucketWidth the range of priorities covered by each bucket. Must be > 0.
+     */
+    public BucketMinPQ(double bucketWidth) {
+        this(bucketWidth, DEFAULT_INITIAL_BUCKET_COUNT);
+    }
+
+    /**
+     * @param bucketWidth the range of priorities covered by each bucket. Must be > 0.
+     * @param initialBucketCount the initial ring size; ideally a bit more than the largest
+     *                           edge weight divided by {@code bucketWidth}. Must be > 0.
+     */
+    public BucketMinPQ(double bucketWidth, int initialBucketCount) {
+        if (!(bucketWidth > 0)) {
+            throw new IllegalArgumentException("Bucket width must be positive.");
+        }
+        if (initialBucketCount <= 0) {
+            throw new IllegalArgumentException("Bucket count must be positive.");
+        }
+        this.bucketWidth = bucketWidth;
+        this.ring = createRing(initialBucketCount);
+        this.nodes = new OpenAddressingHashMap<>();
+        this.cursor = 0;
+        this.size = 0;
+    }
+
+    private static class Node<T> {
+        final T item;
+        double priority;
+        long bucketKey;
+        int index;
+
+        Node(T item) {
+            this.item = item;
+        }
+    }
+
+    private static <T> List<List<Node<T>>> createRing(int bucketCount) {
+        List<List<Node<T>>> ring = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            ring.add(new ArrayList<>());
+        }
+        return ring;
+    }
+
+    private long bucketKeyFor(double priority) {
+        if (!(priority >= 0)) {
+            throw new IllegalArgumentException("Priorities must be non-negative: " + priority);
+        }
+        long bucketKey = (long) Math.floor(priority / bucketWidth);
+        if (bucketKey < cursor) {
+            throw new IllegalArgumentException("Priority " + priority + " is below the last removed priority.");
+        }
+        return bucketKey;
+    }
+
+    private List<Node<T>> bucket(long bucketKey) {
+        return ring.get((int) (bucketKey % ring.size()));
+    }
+
+    private void insert(Node<T> node) {
+        if (node.bucketKey - cursor >= ring.size()) {
+            grow(node.bucketKey - cursor + 1);
+        }
+        List<Node<T>> bucket = bucket(node.bucketKey);
+        node.index = bucket.size();
+        bucket.add(node);
+    }
+
+    private void detach(Node<T> node) {
+        List<Node<T>> bucket = bucket(node.bucketKey);
+        Node<T> moved = bucket.remove(bucket.size() - 1);
+        if (moved != node) {
+            bucket.set(node.index, moved);
+            moved.index = node.index;
+        }
+    }
+
+    private void grow(long minBucketCount) {
+        long bucketCount = ring.size();
+        while (bucketCount < minBucketCount) {
+            bucketCount *= 2;
+        }
+        if (bucketCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Priorities are too spread out for the bucket width.");
+        }
+        List<List<Node<T>>> oldRing = ring;
+        ring = createRing((int) bucketCount);
+        for (List<Node<T>> bucket : oldRing) {
+            for (Node<T> node : bucket) {
+                List<Node<T>> newBucket = bucket(node.bucketKey);
+                node.index = newBucket.size();
+                newBucket.add(node);
+            }
+        }
+    }
+
+    @Override
+    public void add(T item, double priority) {
+        if (contains(item)) {
+            throw new IllegalArgumentException("This item exists!");
+        }
+        Node<T> node = new Node<>(item);
+        node.priority = priority;
+        node.bucketKey = bucketKeyFor(priority);
+        insert(node);
+        nodes.put(item, node);
+        size++;
+    }
+
+    @Override
+    public boolean contains(T item) {
+        return nodes.containsKey(item);
+    }
+
+    @Override
+    public T peekMin() {
+        return findMin().item;
+    }
+
+    @Override
+    public T removeMin() {
+        Node<T> min = findMin();
+        detach(min);
+        nodes.remove(min.item);
+        size--;
+        return min.item;
+    }
+
+    /**
+     * Advances the cursor to the first non-empty bucket and returns its smallest node.
+     */
+    private Node<T> findMin() {
+        if (size == 0) {
+            throw new NoSuchElementException("Priority Queue is empty.");
+        }
+        List<Node<T>> bucket = bucket(cursor);
+        while (bucket.isEmpty()) {
+            cursor++;
+            bucket = bucket(cursor);
+        }
+        Node<T> min = bucket.get(0);
+        for (int i = 1; i < bucket.size(); i++) {
+            if (bucket.get(i).priority < min.priority) {
+                min = bucket.get(i);
+            }
+        }
+        return min;
+    }
+
+    @Override
+    public void changePriority(T item, double priority) {
+        Node<T> node = nodes.get(item);
+        if (node == null) {
+            throw new NoSuchElementException("Item not found in Priority Queue.");
+        }
+        long bucketKey = bucketKeyFor(priority);
+        detach(node);
+        node.priority = priority;
+        node.bucketKey = bucketKey;
+        insert(node);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,176 @@
+package graphs.shortestpaths;
+
+import graphs.BaseEdge;
+import graphs.Graph;
+import graphs.VersionedGraph;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wraps another {@link SPTShortestPathFinder}, caching the full shortest-paths tree built from
+ * each start vertex so that later queries from the same start only need to extract a path.
+ *
+ * Trees are keyed by graph identity, graph version (for graphs that implement
+ * {@link VersionedGraph}) and start vertex. The cache holds trees up to a memory budget,
+ * estimated from the number of entries in each tree, and evicts the least recently used ones
+ * beyond it. Graphs that change without implementing {@code VersionedGraph} must be
+ * {@linkplain #invalidate(Graph) invalidated} by hand.
+ *
+ * The delegate must build a full tree when passed a {@code null} end vertex, as
+ * {@link DijkstraShortestPathFinder} and its subclasses do.
+ */
+public class CachingShortestPathFinder<G extends Graph<V, E>, V, E extends BaseEdge<V, E>>
+    extends SPTShortestPathFinder<G, V, E> {
+    static final long ESTIMATED_BYTES_PER_TREE_ENTRY = 64;
+
+    private final SPTShortestPathFinder<G, V, E> delegate;
+    private final long memoryBudgetBytes;
+    private final LinkedHashMap<CacheKey, Map<V, E>> cache;
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param delegate the finder used to build trees on a cache miss
+     * @param memoryBudgetBytes the estimated size the cached trees may take up. Must be >= 0.
+     */
+    public CachingShortestPathFinder(SPTShortestPathFinder<G, V, E> delegate, long memoryBudgetBytes) {
+        if (memoryBudgetBytes < 0) {
+            throw new IllegalArgumentException("Memory budget must not be negative.");
+        }
+        this.delegate = delegate;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.usedBytes = 0;
+    }
+
+    @Override
+    protected Map<V, E> constructShortestPathsTree(G graph, V start, V end) {
+        CacheKey key = new CacheKey(graph, versionOf(graph), start);
+        synchronized (this) {
+            Map<V, E> tree = cache.get(key);
+            if (tree != null) {
+                hits++;
+                return tree;
+            }
+            misses++;
+        }
+
+        // Build outside the lock; two threads missing on the same key just both compute it
+        Map<V, E> tree = Collections.unmodifiableMap(delegate.constructShortestPathsTree(graph, start, null));
+        long cost = estimateBytes(tree);
+        synchronized (this) {
+            if (cost <= memoryBudgetBytes && !cache.containsKey(key)) {
+                removeOtherVersions(key);
+                cache.put(key, tree);
+                usedBytes += cost;
+                evictToBudget();
+            }
+        }
+        return tree;
+    }
+
+    @Override
+    protected ShortestPath<V, E> extractShortestPath(Map<V, E> spt, V start, V end) {
+        return delegate.extractShortestPath(spt, start, end);
+    }
+
+    /**
+     * Drops every cached tree for the given graph.
+     */
+    public synchronized void invalidate(Graph<V, E> graph) {
+        Iterator<Map.Entry<CacheKey, Map<V, E>>> it = cache.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<CacheKey, Map<V, E>> entry = it.next();
+            if (entry.getKey().graph == graph) {
+                usedBytes -= estimateBytes(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        cache.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized int getCachedTreeCount() {
+        return cache.size();
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return usedBytes;
+    }
+
+    private static long versionOf(Graph<?, ?> graph) {
+        return graph instanceof VersionedGraph ? ((VersionedGraph) graph).version() : 0;
+    }
+
+    private static long estimateBytes(Map<?, ?> tree) {
+        return (tree.size() + 1) * ESTIMATED_BYTES_PER_TREE_ENTRY;
+    }
+
+    /**
+     * Trees for older versions of a graph can never be hit again, so drop them eagerly.
+     */
+    private void removeOtherVersions(CacheKey key) {
+        Iterator<Map.Entry<CacheKey, Map<V, E>>> it = cache.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<CacheKey, Map<V, E>> entry = it.next();
+            if (entry.getKey().graph == key.graph && entry.getKey().version != key.version) {
+                usedBytes -= estimateBytes(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<CacheKey, Map<V, E>>> it = cache.entrySet().iterator();
+        while (usedBytes > memoryBudgetBytes && it.hasNext()) {
+            usedBytes -= estimateBytes(it.next().getValue());
+            it.remove();
+            evictions++;
+        }
+    }
+
+    private static final class CacheKey {
+        private final Object graph;
+        private final long version;
+        private final Object start;
+
+        CacheKey(Object graph, long version, Object start) {
+            this.graph = graph;
+            this.version = version;
+            this.start = start;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return graph == other.graph && version == other.version && start.equals(other.start);
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(graph) * 31 + Long.hashCode(version)) * 31 + start.hashCode();
+        }
+    }
+}
@@ -3,8 +3,20 @@ package maps;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import metrics.MapResizeEvent;
+import metrics.Metrics;
 
 /**
+ * Chain counts are always powers of two (constructor arguments are rounded up), and keys are
+ * placed by a bit-mixed hash code, so structured or clustered hash codes still spread across
+ * the chains.
+ *
+ * A chain that grows past {@value #ADAPTIVE_CHAIN_THRESHOLD} entries is switched to a
+ * {@link HashTreeMap}, a balanced tree ordered by hash and then by {@code compareTo}, and
+ * switched back to a regular chain once it shrinks below {@value #REGULAR_CHAIN_THRESHOLD}
+ * entries. Even when many keys share a hash code, operations on such a bucket stay O(log n)
+ * as long as the keys are {@link Comparable}.
+ *
  * @see AbstractIterableMap
  * @see Map
  */
@@ -12,6 +24,12 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
     private static final double DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD = 0.75;
     private static final int DEFAULT_INITIAL_CHAIN_COUNT = 10;
     private static final int DEFAULT_INITIAL_CHAIN_CAPACITY = 5;
+    private static final int MIGRATED_CHAINS_PER_OPERATION = 4;
+    private static final int MAXIMUM_CHAIN_COUNT = 1 << 30;
+    // Thresholds for switching chains to and from HashTreeMap; the gap between them
+    // keeps a chain hovering around one size from switching back and forth
+    static final int ADAPTIVE_CHAIN_THRESHOLD = 8;
+    static final int REGULAR_CHAIN_THRESHOLD = 6;
 
     /*
     Warning:
@@ -27,6 +45,16 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
 
     // You're encouraged to add extra fields (and helper methods) though!
 
+    /*
+    While an incremental resize is in progress, `oldChains` is the previous table. Chains
+    below `migratedChainCount` have already been moved into `chains` and nulled out; the rest
+    still hold live entries, so lookups consult both tables until the migration finishes.
+     */
+    private final boolean incrementalResizing;
+    private AbstractIterableMap<K, V>[] oldChains;
+    private int migratedChainCount;
+    private long migrationNanos;
+
     /**
      * Constructs a new ChainedHashMap with default resizing load factor threshold,
      * default initial chain count, and default initial chain capacity.
@@ -40,17 +68,63 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
      *
      * @param resizingLoadFactorThreshold the load factor threshold for resizing. When the load factor
      *                                    exceeds this value, the hash table resizes. Must be > 0.
-     * @param initialChainCount the initial number of chains for your hash table. Must be > 0.
+     * @param initialChainCount the initial number of chains for your hash table. Rounded up to a
+     *                          power of two. Must be > 0.
      * @param chainInitialCapacity the initial capacity of each ArrayMap chain created by the map.
      *                             Must be > 0.
      */
     public ChainedHashMap(double resizingLoadFactorThreshold, int initialChainCount, int chainInitialCapacity) {
+        this(resizingLoadFactorThreshold, initialChainCount, chainInitialCapacity, false);
+    }
+
+    /**
+     * Constructs a new ChainedHashMap with the given parameters.
+     *
+     * @param resizingLoadFactorThreshold the load factor threshold for resizing. When the load factor
+     *                                    exceeds this value, the hash table resizes. Must be > 0.
+     * @param initialChainCount the initial number of chains for your hash table. Rounded up to a
+     *                          power of two. Must be > 0.
+     * @param chainInitialCapacity the initial capacity of each ArrayMap chain created by the map.
+     *                             Must be > 0.
+     * @param incrementalResizing if true, resizing moves a few chains into the new table on each
+     *                            put or remove instead of rehashing everything at once, so no
+     *                            single operation pays O(n). Lookups stay read-only.
+     */
+    public ChainedHashMap(double resizingLoadFactorThreshold, int initialChainCount, int chainInitialCapacity,
+                          boolean incrementalResizing) {
         this.resizingLoadFactorThreshold = resizingLoadFactorThreshold;
-        this.initialChainCount = initialChainCount;
+        this.initialChainCount = powerOfTwoAtLeast(initialChainCount);
         this.chainInitialCapacity = chainInitialCapacity;
+        this.incrementalResizing = incrementalResizing;
         this.size = 0;
-        this.chains = createArrayOfChains(initialChainCount);
+        this.chains = createArrayOfChains(this.initialChainCount);
+    }
 
+    /**
+     * Constructs a new ChainedHashMap with enough chains to hold {@code expectedSize} entries
+     * without resizing.
+     *
+     * @param expectedSize the number of entries the map is expected to hold. Must be >= 0.
+     */
+    public ChainedHashMap(int expectedSize) {
+        this(DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD,
+            chainCountFor(expectedSize, DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD),
+            DEFAULT_INITIAL_CHAIN_CAPACITY);
+    }
+
+    private static int chainCountFor(int expectedSize, double resizingLoadFactorThreshold) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative.");
+        }
+        return powerOfTwoAtLeast((int) Math.min(MAXIMUM_CHAIN_COUNT,
+            (long) Math.ceil(expectedSize / resizingLoadFactorThreshold) + 1));
+    }
+
+    private static int powerOfTwoAtLeast(int count) {
+        if (count <= 1) {
+            return 1;
+        }
+        return count >= MAXIMUM_CHAIN_COUNT ? MAXIMUM_CHAIN_COUNT : Integer.highestOneBit(count - 1) << 1;
     }
 
     /**
@@ -79,14 +153,98 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
         return new ArrayMap<>(initialSize);
     }
 
+    /**
+     * Returns a new ChainedHashMap, with default parameters, whose chains are
+     * {@link HashedArrayMap}s instead of ArrayMaps.
+     *
+     * Like its chains, the returned map's iterator hands out flyweight entries that are only
+     * valid until the next call to {@code next()}.
+     */
+    public static <K, V> ChainedHashMap<K, V> withHashedArrayChains() {
+        return new ChainedHashMap<K, V>() {
+            @Override
+            protected AbstractIterableMap<K, V> createChain(int initialSize) {
+                return new HashedArrayMap<>(initialSize);
+            }
+        };
+    }
+
+    /**
+     * Returns a new chain for a bucket that has grown past {@value #ADAPTIVE_CHAIN_THRESHOLD}
+     * entries, holding a copy of the given chain's entries.
+     */
+    protected AbstractIterableMap<K, V> createLargeChain(AbstractIterableMap<K, V> chain) {
+        HashTreeMap<K, V> largeChain = new HashTreeMap<>();
+        for (Entry<K, V> entry : chain) {
+            largeChain.put(entry.getKey(), entry.getValue());
+        }
+        return largeChain;
+    }
+
+    private static int indexFor(Object key, int chainCount) {
+        // chainCount is a power of two, and the mixed hash is spread over all 32 bits
+        return OpenAddressingTable.mix(key.hashCode()) & (chainCount - 1);
+    }
+
+    /**
+     * Switches the chain at the given index of the table to or from the large chain type if
+     * its size has crossed the corresponding threshold.
+     */
+    private void adaptChain(AbstractIterableMap<K, V>[] table, int index) {
+        AbstractIterableMap<K, V> chain = table[index];
+        boolean large = chain instanceof HashTreeMap;
+        if (!large && chain.size() > ADAPTIVE_CHAIN_THRESHOLD) {
+            table[index] = createLargeChain(chain);
+        } else if (large && chain.size() < REGULAR_CHAIN_THRESHOLD) {
+            AbstractIterableMap<K, V> regularChain = createChain(chainInitialCapacity);
+            for (Entry<K, V> entry : chain) {
+                regularChain.put(entry.getKey(), entry.getValue());
+            }
+            table[index] = regularChain;
+        }
+    }
+
+    /**
+     * Returns the chain holding the given key, looking in the old table too while a resize is
+     * in progress, or null if the key is absent.
+     */
+    private AbstractIterableMap<K, V> chainContaining(Object key) {
+        AbstractIterableMap<K, V> chain = chains[indexFor(key, chains.length)];
+        recordChainLength(chain);
+        if (chain != null && chain.containsKey(key)) {
+            return chain;
+        }
+        if (oldChains != null) {
+            chain = oldChains[indexFor(key, oldChains.length)];
+            recordChainLength(chain);
+            if (chain != null && chain.containsKey(key)) {
+                return chain;
+            }
+        }
+        return null;
+    }
+
     @Override
     public V get(Object key) {
-        int hashCode = key.hashCode();
-        int index = Math.abs(hashCode)% initialChainCount;
-        if (key == null || chains[index] == null) {
+        if (key == null) {
             return null;
         }
-        return chains[index].get(key);
+        AbstractIterableMap<K, V> chain = chains[indexFor(key, chains.length)];
+        recordChainLength(chain);
+        if (chain != null) {
+            V value = chain.get(key);
+            if (value != null || oldChains == null || chain.containsKey(key)) {
+                return value;
+            }
+        }
+        if (oldChains != null) {
+            chain = oldChains[indexFor(key, oldChains.length)];
+            recordChainLength(chain);
+            if (chain != null) {
+                return chain.get(key);
+            }
+        }
+        return null;
     }
 
     @Override
@@ -94,65 +252,138 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
         if (key == null) {
             throw new IllegalArgumentException();
         }
-        if ((double) size/initialChainCount >= resizingLoadFactorThreshold) {
-            resize();
+        migrateSomeChains();
+        AbstractIterableMap<K, V> currChain = chainContaining(key);
+        if (currChain != null) {
+            return currChain.put(key, value);
         }
-        int hashCode = key.hashCode();
-        int index = Math.abs(hashCode) % initialChainCount;
-        AbstractIterableMap<K, V> currChain = chains[index];
+
+        if ((double) size / chains.length >= resizingLoadFactorThreshold && chains.length < MAXIMUM_CHAIN_COUNT) {
+            resize(chains.length * 2);
+        }
+        int index = indexFor(key, chains.length);
+        currChain = chains[index];
         if (currChain == null) {
             currChain = createChain(chainInitialCapacity);
             chains[index] = currChain;
         }
-        if (currChain.get(key) == null) {
-            size++;
+        size++;
+        V prevValue = currChain.put(key, value);
+        adaptChain(chains, index);
+        return prevValue;
+    }
+
+    /**
+     * Grows the table, if needed, so that it can hold {@code expectedSize} entries without
+     * resizing again. Useful before bulk loads.
+     */
+    public void ensureCapacity(int expectedSize) {
+        int chainCount = chainCountFor(expectedSize, resizingLoadFactorThreshold);
+        if (chainCount > chains.length) {
+            finishMigration();
+            startResize(chainCount);
+            finishMigration();
         }
+    }
 
-        if (currChain == null) {
-            // Create a new instance of the chain (replace ChainType with the actual type)
-            currChain = new ArrayMap<>(initialChainCount);
+    private void recordChainLength(AbstractIterableMap<K, V> chain) {
+        if (Metrics.ENABLED) {
+            Metrics.CHAIN_LENGTH.record(chain == null ? 0 : chain.size());
+        }
+    }
 
-            // Set the newly created chain back to the map
-            chains[index] = currChain;
+    private void resize(int newChainCount) {
+        // A resize can't start until the previous one has finished
+        finishMigration();
+        startResize(newChainCount);
+        if (!incrementalResizing) {
+            finishMigration();
         }
-        return currChain.put(key, value);
     }
 
-    private void resize() {
-        initialChainCount = initialChainCount * 2;
-        AbstractIterableMap<K, V>[] newMap = createArrayOfChains(initialChainCount);
-        for (int i = 0; i < chains.length; i++) {
-            if (chains[i] != null) {
-                for (Entry<K, V> entry : chains[i]) {
-                    int index = Math.abs(entry.getKey().hashCode()) % newMap.length;
-                    if (newMap[index] == null) {
-                        newMap[index] = createChain(chainInitialCapacity);
+    private void startResize(int newChainCount) {
+        if (Metrics.ENABLED) {
+            Metrics.MAP_RESIZES.increment();
+        }
+        oldChains = chains;
+        chains = createArrayOfChains(newChainCount);
+        migratedChainCount = 0;
+        migrationNanos = 0;
+    }
+
+    private void migrateSomeChains() {
+        if (oldChains != null) {
+            migrateChains(MIGRATED_CHAINS_PER_OPERATION);
+        }
+    }
+
+    private void finishMigration() {
+        if (oldChains != null) {
+            migrateChains(oldChains.length - migratedChainCount);
+        }
+    }
+
+    private void migrateChains(int count) {
+        long startNanos = Metrics.ENABLED ? System.nanoTime() : 0;
+        int end = Math.min(oldChains.length, migratedChainCount + count);
+        for (; migratedChainCount < end; migratedChainCount++) {
+            AbstractIterableMap<K, V> chain = oldChains[migratedChainCount];
+            if (chain != null) {
+                for (Entry<K, V> entry : chain) {
+                    int index = indexFor(entry.getKey(), chains.length);
+                    if (chains[index] == null) {
+                        chains[index] = createChain(chainInitialCapacity);
                     }
-                    newMap[index].put(entry.getKey(), entry.getValue());
+                    chains[index].put(entry.getKey(), entry.getValue());
+                    adaptChain(chains, index);
                 }
+                oldChains[migratedChainCount] = null;
             }
         }
-        chains = newMap;
+        if (Metrics.ENABLED) {
+            migrationNanos += System.nanoTime() - startNanos;
+        }
+        if (migratedChainCount == oldChains.length) {
+            if (Metrics.ENABLED) {
+                Metrics.MAP_RESIZE_NANOS.record(migrationNanos);
+                MapResizeEvent event = new MapResizeEvent();
+                event.mapClass = getClass().getName();
+                event.entries = size;
+                event.oldChainCount = oldChains.length;
+                event.newChainCount = chains.length;
+                event.rehashNanos = migrationNanos;
+                event.incremental = incrementalResizing;
+                event.commit();
+            }
+            oldChains = null;
+        }
     }
+
     @Override
     public V remove(Object key) {
-        if (size == 0 || (!containsKey(key))) {
+        if (key == null || size == 0) {
             return null;
         }
-        int hashCode = key.hashCode();
-        int index = Math.abs(hashCode)% initialChainCount;
-        AbstractIterableMap<K, V> currChain = chains[index];
-        if (currChain.isEmpty()) {
-            currChain = null;
+        migrateSomeChains();
+        AbstractIterableMap<K, V> currChain = chainContaining(key);
+        if (currChain == null) {
+            return null;
         }
         V value = currChain.remove(key);
         size--;
+        int index = indexFor(key, chains.length);
+        if (chains[index] == currChain) {
+            adaptChain(chains, index);
+        } else {
+            adaptChain(oldChains, indexFor(key, oldChains.length));
+        }
         return value;
     }
 
     @Override
     public void clear() {
-        chains = createArrayOfChains(DEFAULT_INITIAL_CHAIN_COUNT);
+        chains = createArrayOfChains(initialChainCount);
+        oldChains = null;
         size = 0;
     }
 
@@ -161,13 +392,7 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
         if (key == null) {
             return false;
         }
-        int hashCode = key.hashCode();
-        int index = Math.abs(hashCode)% initialChainCount;
-        AbstractIterableMap<K, V> currChain = chains[index];
-        if (currChain == null) {
-            return false;
-        }
-        return currChain.containsKey(key);
+        return chainContaining(key) != null;
     }
 
     @Override
@@ -178,7 +403,7 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
     @Override
     public Iterator<Map.Entry<K, V>> iterator() {
         // Note: you won't need to change this method (unless you add more constructor parameters)
-        return new ChainedHashMapIterator<>(this.chains);
+        return new ChainedHashMapIterator<>(this.oldChains, this.chains);
     }
 
     /*
@@ -186,22 +411,31 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
      */
 
     private static class ChainedHashMapIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        // Walks the old table (if a resize is in progress) followed by the current one
+        private AbstractIterableMap<K, V>[] oldChains;
         private AbstractIterableMap<K, V>[] chains;
+        private int oldChainCount;
         private int currIndex;
         private Iterator<Map.Entry<K, V>> currIterator;
 
 
         // You may add more fields and constructor parameters
 
-        public ChainedHashMapIterator(AbstractIterableMap<K, V>[] chains) {
+        public ChainedHashMapIterator(AbstractIterableMap<K, V>[] oldChains, AbstractIterableMap<K, V>[] chains) {
+            this.oldChains = oldChains;
             this.chains = chains;
+            this.oldChainCount = oldChains == null ? 0 : oldChains.length;
             this.currIndex = 0;
             getNextIterator();
         }
 
+        private AbstractIterableMap<K, V> chainAt(int index) {
+            return index < oldChainCount ? oldChains[index] : chains[index - oldChainCount];
+        }
+
         @Override
         public boolean hasNext() {
-            return currIndex < chains.length;
+            return currIndex < oldChainCount + chains.length;
         }
 
         @Override
@@ -218,11 +452,11 @@ public class ChainedHashMap<K, V> extends AbstractIterableMap<K, V> {
         }
 
         private void getNextIterator() {
-            while (currIndex < chains.length && (chains[currIndex] == null || chains[currIndex].isEmpty())) {
+            while (hasNext() && (chainAt(currIndex) == null || chainAt(currIndex).isEmpty())) {
                 currIndex++;
             }
             if (hasNext()) {
-                currIterator = chains[currIndex].iterator();
+                currIterator = chainAt(currIndex).iterator();
             }
             else {
                 currIterator = null;
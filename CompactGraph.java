@@ -0,0 +1,230 @@
+package graphs;
+
+import maps.FrozenMap;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * A frozen, compressed-sparse-row copy of a graph.
+ *
+ * Vertices are numbered densely from 0 in the order they were discovered. The outgoing arcs of
+ * vertex {@code v} occupy indices {@code [arcStart(v), arcEnd(v))} of the parallel
+ * {@code arcTarget}/{@code arcWeight} arrays, so algorithms can walk a vertex's neighbors over
+ * contiguous primitive memory. The original edge objects are kept alongside so results can be
+ * reported through the usual {@code V}/{@code E} API, which this class also implements.
+ *
+ * For graphs built from a {@link KruskalGraph}, {@link #allEdges()} keeps the source graph's
+ * edge list (and its order); the endpoints and weights of those edges are also available
+ * by index through {@code edgeSource}/{@code edgeTarget}/{@code edgeWeight}.
+ */
+public class CompactGraph<V, E extends BaseEdge<V, E>> implements KruskalGraph<V, E> {
+    private final List<V> vertices;
+    private final Map<V, Integer> vertexIds;
+
+    // CSR adjacency: arcs of vertex v are [offsets[v], offsets[v + 1])
+    private final int[] offsets;
+    private final int[] arcTargets;
+    private final double[] arcWeights;
+    private final List<E> arcEdges;
+
+    // Edge list, mirroring allEdges()
+    private final int[] edgeSources;
+    private final int[] edgeTargets;
+    private final double[] edgeWeights;
+    private final List<E> edges;
+
+    private CompactGraph(Graph<V, E> graph, List<V> vertices, Collection<E> edgeList) {
+        this.vertices = Collections.unmodifiableList(vertices);
+        Map<V, Integer> ids = new HashMap<>();
+        for (int i = 0; i < vertices.size(); i++) {
+            ids.put(vertices.get(i), i);
+        }
+        // Never changes after construction, and queries look vertices up constantly
+        this.vertexIds = FrozenMap.freeze(ids);
+
+        int n = vertices.size();
+        this.offsets = new int[n + 1];
+        List<E> arcs = new ArrayList<>();
+        for (int v = 0; v < n; v++) {
+            offsets[v] = arcs.size();
+            arcs.addAll(graph.outgoingEdgesFrom(vertices.get(v)));
+        }
+        offsets[n] = arcs.size();
+        this.arcTargets = new int[arcs.size()];
+        this.arcWeights = new double[arcs.size()];
+        for (int i = 0; i < arcs.size(); i++) {
+            arcTargets[i] = requireId(arcs.get(i).to());
+            arcWeights[i] = arcs.get(i).weight();
+        }
+        this.arcEdges = Collections.unmodifiableList(arcs);
+
+        List<E> edgeCopy = edgeList == null ? arcEdges : Collections.unmodifiableList(new ArrayList<>(edgeList));
+        this.edgeSources = new int[edgeCopy.size()];
+        this.edgeTargets = new int[edgeCopy.size()];
+        this.edgeWeights = new double[edgeCopy.size()];
+        for (int i = 0; i < edgeCopy.size(); i++) {
+            E edge = edgeCopy.get(i);
+            edgeSources[i] = requireId(edge.from());
+            edgeTargets[i] = requireId(edge.to());
+            edgeWeights[i] = edge.weight();
+        }
+        this.edges = edgeCopy;
+    }
+
+    /**
+     * Returns a compact copy of the given graph, with vertices numbered in
+     * {@code graph.allVertices()} order.
+     */
+    public static <V, E extends BaseEdge<V, E>> CompactGraph<V, E> of(KruskalGraph<V, E> graph) {
+        if (graph instanceof CompactGraph) {
+            @SuppressWarnings("unchecked")
+            CompactGraph<V, E> compact = (CompactGraph<V, E>) graph;
+            return compact;
+        }
+        return new CompactGraph<>(graph, new ArrayList<>(graph.allVertices()), graph.allEdges());
+    }
+
+    /**
+     * Returns a compact copy of the part of the given graph reachable from {@code roots}.
+     * Vertices are numbered in breadth-first order, and {@link #allEdges()} returns every arc.
+     */
+    public static <V, E extends BaseEdge<V, E>> CompactGraph<V, E> of(Graph<V, E> graph, Collection<V> roots) {
+        List<V> vertices = new ArrayList<>();
+        Set<V> seen = new HashSet<>();
+        Queue<V> queue = new ArrayDeque<>();
+        for (V root : roots) {
+            if (seen.add(root)) {
+                vertices.add(root);
+                queue.add(root);
+            }
+        }
+        while (!queue.isEmpty()) {
+            for (E edge : graph.outgoingEdgesFrom(queue.remove())) {
+                if (seen.add(edge.to())) {
+                    vertices.add(edge.to());
+                    queue.add(edge.to());
+                }
+            }
+        }
+        return new CompactGraph<>(graph, vertices, null);
+    }
+
+    private int requireId(V vertex) {
+        Integer id = vertexIds.get(vertex);
+        if (id == null) {
+            throw new IllegalArgumentException("Edge endpoint is not a vertex of the graph: " + vertex);
+        }
+        return id;
+    }
+
+    public int vertexCount() {
+        return vertices.size();
+    }
+
+    /**
+     * Returns the dense id of the given vertex, or -1 if it is not in the graph.
+     */
+    public int idOf(V vertex) {
+        Integer id = vertexIds.get(vertex);
+        return id == null ? -1 : id;
+    }
+
+    public V vertex(int id) {
+        return vertices.get(id);
+    }
+
+    public int arcCount() {
+        return arcTargets.length;
+    }
+
+    public int arcStart(int vertexId) {
+        return offsets[vertexId];
+    }
+
+    public int arcEnd(int vertexId) {
+        return offsets[vertexId + 1];
+    }
+
+    public int arcTarget(int arc) {
+        return arcTargets[arc];
+    }
+
+    public double arcWeight(int arc) {
+        return arcWeights[arc];
+    }
+
+    public E arcEdge(int arc) {
+        return arcEdges.get(arc);
+    }
+
+    public int edgeCount() {
+        return edgeSources.length;
+    }
+
+    public int edgeSource(int edge) {
+        return edgeSources[edge];
+    }
+
+    public int edgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    public double edgeWeight(int edge) {
+        return edgeWeights[edge];
+    }
+
+    public E edge(int edge) {
+        return edges.get(edge);
+    }
+
+    @Override
+    public Collection<E> outgoingEdgesFrom(V vertex) {
+        int id = idOf(vertex);
+        if (id < 0) {
+            return Collections.emptyList();
+        }
+        return new ArcRange(offsets[id], offsets[id + 1]);
+    }
+
+    @Override
+    public Collection<V> allVertices() {
+        return vertices;
+    }
+
+    @Override
+    public Collection<E> allEdges() {
+        return edges;
+    }
+
+    private class ArcRange extends AbstractList<E> {
+        private final int from;
+        private final int to;
+
+        ArcRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public E get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException();
+            }
+            return arcEdges.get(from + index);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package maps;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A thread-safe chained hash map with lock-free reads.
+ *
+ * Each chain is an immutable linked list published in an {@link AtomicReferenceArray}, so a
+ * reader just loads the head of its chain and walks a snapshot that can never change under
+ * it. Writers lock one of a fixed set of stripes, chosen by the key's hash, copy the part of
+ * the chain in front of the node they change, and publish the new head. The table is always
+ * at least as long as the number of stripes, so every key in a chain maps to the same stripe.
+ *
+ * Resizing is cooperative. The thread that pushes the map past its load factor allocates the
+ * next table, and from then on every writer that runs into the resize claims a range of
+ * chains and moves them over (each under its stripe lock) before carrying on. A moved chain is
+ * replaced by a forwarding marker pointing at the next table, where readers and writers
+ * follow it.
+ *
+ * Iterators are weakly consistent: they never throw {@code ConcurrentModificationException},
+ * and see each chain as it was when they reached it. {@code size()} is a sum of per-thread
+ * counters and is only exact when no writes are in flight. Neither keys nor values may be null.
+ *
+ * @see ChainedHashMap
+ * @see AbstractIterableMap
+ */
+public class ConcurrentChainedHashMap<K, V> extends AbstractIterableMap<K, V> implements ConcurrentMap<K, V> {
+    private static final double RESIZING_LOAD_FACTOR_THRESHOLD = 0.75;
+    private static final int STRIPE_COUNT = 64;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    // Number of chains a thread claims at a time while helping with a resize
+    private static final int TRANSFER_CHUNK = 16;
+
+    private static class Node<K, V> {
+        final int hash;
+        final K key;
+        final V value;
+        final Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Replaces a chain that has been moved to the next table.
+     */
+    private static final class ForwardingNode<K, V> extends Node<K, V> {
+        final AtomicReferenceArray<Node<K, V>> nextTable;
+
+        ForwardingNode(AtomicReferenceArray<Node<K, V>> nextTable) {
+            super(0, null, null, null);
+            this.nextTable = nextTable;
+        }
+    }
+
+    /**
+     * A resize in progress. Chains below {@code transferIndex} are still unclaimed.
+     */
+    private static final class Resize<K, V> {
+        final AtomicReferenceArray<Node<K, V>> oldTable;
+        final AtomicReferenceArray<Node<K, V>> nextTable;
+        final AtomicInteger transferIndex;
+        final AtomicInteger transferredChains;
+
+        Resize(AtomicReferenceArray<Node<K, V>> oldTable) {
+            this.oldTable = oldTable;
+            this.nextTable = new AtomicReferenceArray<>(oldTable.length() * 2);
+            this.transferIndex = new AtomicInteger(oldTable.length());
+            this.transferredChains = new AtomicInteger(0);
+        }
+    }
+
+    private final Object[] stripes;
+    private final LongAdder size;
+    private volatile AtomicReferenceArray<Node<K, V>> table;
+    // Written only while holding resizeLock
+    private volatile Resize<K, V> resize;
+    private final Object resizeLock;
+
+    /**
+     * Constructs a new ConcurrentChainedHashMap with the default initial capacity.
+     */
+    public ConcurrentChainedHashMap() {
+        this(STRIPE_COUNT);
+    }
+
+    /**
+     * Constructs a new ConcurrentChainedHashMap with enough chains to hold
+     * {@code expectedSize} entries without resizing.
+     *
+     * @param expectedSize the number of entries the map is expected to hold. Must be >= 0.
+     */
+    public ConcurrentChainedHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative.");
+        }
+        long wanted = (long) Math.ceil(expectedSize / RESIZING_LOAD_FACTOR_THRESHOLD) + 1;
+        int capacity = STRIPE_COUNT;
+        while (capacity < wanted && capacity < MAXIMUM_CAPACITY) {
+            capacity <<= 1;
+        }
+        this.stripes = new Object[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Object();
+        }
+        this.size = new LongAdder();
+        this.table = new AtomicReferenceArray<>(capacity);
+        this.resizeLock = new Object();
+    }
+
+    private static int hashOf(Object key) {
+        return OpenAddressingTable.mix(key.hashCode());
+    }
+
+    private Object stripeFor(int hash) {
+        return stripes[hash & (STRIPE_COUNT - 1)];
+    }
+
+    private static <K, V> Node<K, V> find(Node<K, V> chain, int hash, Object key) {
+        for (Node<K, V> node = chain; node != null; node = node.next) {
+            if (node.hash == hash && node.key.equals(key)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a copy of the chain without the given node, sharing the nodes after it.
+     */
+    private static <K, V> Node<K, V> without(Node<K, V> chain, Node<K, V> removed) {
+        // Copied iteratively, since colliding keys can make a chain too long to recurse over
+        int prefixLength = 0;
+        for (Node<K, V> node = chain; node != removed; node = node.next) {
+            prefixLength++;
+        }
+        Object[] prefix = new Object[prefixLength];
+        Node<K, V> node = chain;
+        for (int i = 0; i < prefixLength; i++, node = node.next) {
+            prefix[i] = node;
+        }
+        Node<K, V> rest = removed.next;
+        for (int i = prefixLength - 1; i >= 0; i--) {
+            @SuppressWarnings("unchecked")
+            Node<K, V> copied = (Node<K, V>) prefix[i];
+            rest = new Node<>(copied.hash, copied.key, copied.value, rest);
+        }
+        return rest;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int hash = hashOf(key);
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            Node<K, V> chain = tab.get(hash & (tab.length() - 1));
+            if (chain instanceof ForwardingNode) {
+                tab = ((ForwardingNode<K, V>) chain).nextTable;
+                continue;
+            }
+            Node<K, V> node = find(chain, hash, key);
+            return node == null ? null : node.value;
+        }
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * The single write path: under the key's stripe lock, passes the current value (or null)
+     * to {@code update} and stores what it returns, removing the key if it returns null.
+     * Returns the value that was current before the update.
+     */
+    private V write(K key, Function<? super V, ? extends V> update) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        int hash = hashOf(key);
+        boolean added = false;
+        V oldValue;
+        AtomicReferenceArray<Node<K, V>> tab = table;
+        while (true) {
+            int index = hash & (tab.length() - 1);
+            Node<K, V> chain = tab.get(index);
+            if (chain instanceof ForwardingNode) {
+                helpTransfer();
+                tab = ((ForwardingNode<K, V>) chain).nextTable;
+                continue;
+            }
+            synchronized (stripeFor(hash)) {
+                // The chain may have been moved while we were waiting for the lock
+                if (tab.get(index) != chain) {
+                    continue;
+                }
+                Node<K, V> node = find(chain, hash, key);
+                oldValue = node == null ? null : node.value;
+                V newValue = update.apply(oldValue);
+                if (newValue == oldValue) {
+                    break;
+                }
+                Node<K, V> rest = node == null ? chain : without(chain, node);
+                if (newValue == null) {
+                    tab.set(index, rest);
+                    size.decrement();
+                } else {
+                    tab.set(index, new Node<>(hash, key, newValue, rest));
+                    if (node == null) {
+                        size.increment();
+                        added = true;
+                    }
+                }
+                break;
+            }
+        }
+        if (added) {
+            AtomicReferenceArray<Node<K, V>> current = table;
+            if (size.sum() > (long) (current.length() * RESIZING_LOAD_FACTOR_THRESHOLD)) {
+                startResize(current);
+            }
+        }
+        if (resize != null) {
+            helpTransfer();
+        }
+        return oldValue;
+    }
+
+    private static <V> V requireValue(V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Values must not be null.");
+        }
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        requireValue(value);
+        return write(key, oldValue -> value);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        requireValue(value);
+        return write(key, oldValue -> oldValue == null ? value : oldValue);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        K k = (K) key;
+        return write(k, oldValue -> null);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (key == null || value == null) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        K k = (K) key;
+        boolean[] removed = new boolean[1];
+        write(k, oldValue -> {
+            removed[0] = value.equals(oldValue);
+            return removed[0] ? null : oldValue;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        requireValue(newValue);
+        boolean[] replaced = new boolean[1];
+        write(key, currentValue -> {
+            replaced[0] = currentValue != null && currentValue.equals(oldValue);
+            return replaced[0] ? newValue : currentValue;
+        });
+        return replaced[0];
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        requireValue(value);
+        return write(key, oldValue -> oldValue == null ? null : value);
+    }
+
+    /**
+     * Atomically computes a new value for the key. The function runs while the key's stripe
+     * is locked, so it should be short and must not touch this map.
+     */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Object[] result = new Object[1];
+        write(key, oldValue -> {
+            V newValue = remappingFunction.apply(key, oldValue);
+            result[0] = newValue;
+            return newValue;
+        });
+        @SuppressWarnings("unchecked")
+        V newValue = (V) result[0];
+        return newValue;
+    }
+
+    /**
+     * Atomically computes a value for the key if it is absent. The function runs while the
+     * key's stripe is locked, so it should be short and must not touch this map.
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        Object[] result = new Object[1];
+        write(key, oldValue -> {
+            V newValue = oldValue == null ? mappingFunction.apply(key) : oldValue;
+            result[0] = newValue;
+            return newValue;
+        });
+        @SuppressWarnings("unchecked")
+        V newValue = (V) result[0];
+        return newValue;
+    }
+
+    /**
+     * Atomically computes a new value for the key if it is present. The function runs while
+     * the key's stripe is locked, so it should be short and must not touch this map.
+     */
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Object[] result = new Object[1];
+        write(key, oldValue -> {
+            V newValue = oldValue == null ? null : remappingFunction.apply(key, oldValue);
+            result[0] = newValue;
+            return newValue;
+        });
+        @SuppressWarnings("unchecked")
+        V newValue = (V) result[0];
+        return newValue;
+    }
+
+    /*
+    Resizing
+     */
+
+    private void startResize(AtomicReferenceArray<Node<K, V>> current) {
+        synchronized (resizeLock) {
+            if (table != current || resize != null || current.length() >= MAXIMUM_CAPACITY) {
+                return;
+            }
+            resize = new Resize<>(current);
+        }
+    }
+
+    /**
+     * Claims and moves ranges of chains of the current resize until none are left to claim.
+     */
+    private void helpTransfer() {
+        Resize<K, V> current = resize;
+        if (current == null) {
+            return;
+        }
+        AtomicReferenceArray<Node<K, V>> old = current.oldTable;
+        while (true) {
+            int end = current.transferIndex.get();
+            if (end <= 0) {
+                return;
+            }
+            int start = Math.max(0, end - TRANSFER_CHUNK);
+            if (!current.transferIndex.compareAndSet(end, start)) {
+                continue;
+            }
+            for (int i = start; i < end; i++) {
+                transferChain(old, current.nextTable, i);
+            }
+            if (current.transferredChains.addAndGet(end - start) == old.length()) {
+                // Last range moved: publish the new table
+                synchronized (resizeLock) {
+                    table = current.nextTable;
+                    resize = null;
+                }
+                return;
+            }
+        }
+    }
+
+    private void transferChain(AtomicReferenceArray<Node<K, V>> old, AtomicReferenceArray<Node<K, V>> next,
+                               int index) {
+        int oldLength = old.length();
+        // Every key in this chain shares a stripe, since the table is at least STRIPE_COUNT long
+        synchronized (stripes[index & (STRIPE_COUNT - 1)]) {
+            Node<K, V> low = null;
+            Node<K, V> high = null;
+            for (Node<K, V> node = old.get(index); node != null; node = node.next) {
+                if ((node.hash & oldLength) == 0) {
+                    low = new Node<>(node.hash, node.key, node.value, low);
+                } else {
+                    high = new Node<>(node.hash, node.key, node.value, high);
+                }
+            }
+            next.set(index, low);
+            next.set(index + oldLength, high);
+            old.set(index, new ForwardingNode<>(next));
+        }
+    }
+
+    @Override
+    public void clear() {
+        // Remove keys one by one, so concurrent writers are never lost
+        for (Map.Entry<K, V> entry : this) {
+            remove(entry.getKey());
+        }
+    }
+
+    @Override
+    public int size() {
+        long sum = size.sum();
+        return sum < 0 ? 0 : (int) Math.min(sum, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new ConcurrentChainedHashMapIterator();
+    }
+
+    private class ConcurrentChainedHashMapIterator implements Iterator<Map.Entry<K, V>> {
+        private final AtomicReferenceArray<Node<K, V>> iteratedTable;
+        private final List<Node<K, V>> pending;
+        private int nextChain;
+        private int pendingIndex;
+
+        ConcurrentChainedHashMapIterator() {
+            this.iteratedTable = table;
+            this.pending = new ArrayList<>();
+            this.nextChain = 0;
+            this.pendingIndex = 0;
+            advance();
+        }
+
+        /**
+         * Loads the next non-empty chain into {@code pending}, following forwarding markers to
+         * the chains a moved chain was split into.
+         */
+        private void advance() {
+            while (pendingIndex == pending.size() && nextChain < iteratedTable.length()) {
+                pending.clear();
+                pendingIndex = 0;
+                collect(iteratedTable, nextChain++);
+            }
+        }
+
+        private void collect(AtomicReferenceArray<Node<K, V>> tab, int index) {
+            Node<K, V> chain = tab.get(index);
+            if (chain instanceof ForwardingNode) {
+                AtomicReferenceArray<Node<K, V>> next = ((ForwardingNode<K, V>) chain).nextTable;
+                collect(next, index);
+                collect(next, index + tab.length());
+                return;
+            }
+            for (Node<K, V> node = chain; node != null; node = node.next) {
+                pending.add(node);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pendingIndex < pending.size();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = pending.get(pendingIndex++);
+            advance();
+            return new SimpleEntry<K, V>(node.key, node.value) {
+                @Override
+                public V setValue(V value) {
+                    put(getKey(), value);
+                    return super.setValue(value);
+                }
+            };
+        }
+    }
+}
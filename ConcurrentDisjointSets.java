@@ -0,0 +1,164 @@
+package disjointsets;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free disjoint sets implementation that can be shared between threads.
+ *
+ * Elements are the indices {@code [0, capacity)}, each starting in its own set. Items are
+ * bound to the next free index by {@link #makeSet(Object)}; callers that already have dense
+ * ids can skip the items entirely and use the {@code int} overloads directly.
+ *
+ * Each element's parent and rank are packed into one {@code long} so that a root can be
+ * linked with a single compare-and-set that fails if the root changed underneath it.
+ * {@link #findSet(int)} uses path halving, also by CAS; a failed halving step is simply
+ * skipped, since another thread has already moved the pointer closer to the root.
+ *
+ * Note that while other threads are calling {@code union}, the root returned by
+ * {@code findSet} may stop being a root right away. Use {@link #sameSet(int, int)} to
+ * compare two elements atomically.
+ */
+public class ConcurrentDisjointSets<T> implements DisjointSets<T> {
+    private static final long PARENT_MASK = 0xFFFFFFFFL;
+
+    // rank in the high 32 bits, parent index in the low 32 bits
+    private final AtomicLongArray nodes;
+    private final ConcurrentHashMap<T, Integer> itemToIndexMap;
+    private final AtomicInteger nextIndex;
+
+    /**
+     * @param capacity the number of elements. Must be >= 0.
+     */
+    public ConcurrentDisjointSets(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative.");
+        }
+        this.nodes = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            nodes.set(i, pack(0, i));
+        }
+        this.itemToIndexMap = new ConcurrentHashMap<>();
+        this.nextIndex = new AtomicInteger(0);
+    }
+
+    private static long pack(int rank, int parent) {
+        return ((long) rank << 32) | (parent & PARENT_MASK);
+    }
+
+    private static int parentOf(long node) {
+        return (int) (node & PARENT_MASK);
+    }
+
+    private static int rankOf(long node) {
+        return (int) (node >>> 32);
+    }
+
+    public int capacity() {
+        return nodes.length();
+    }
+
+    @Override
+    public void makeSet(T item) {
+        if (itemToIndexMap.containsKey(item)) {
+            throw new IllegalArgumentException("Item is already in a set.");
+        }
+        int index = nextIndex.getAndIncrement();
+        if (index >= nodes.length()) {
+            throw new IllegalStateException("No free elements left.");
+        }
+        if (itemToIndexMap.putIfAbsent(item, index) != null) {
+            throw new IllegalArgumentException("Item is already in a set.");
+        }
+    }
+
+    /**
+     * Returns the element index bound to the given item.
+     */
+    public int indexOf(T item) {
+        Integer index = itemToIndexMap.get(item);
+        if (index == null) {
+            throw new IllegalArgumentException("Item is not in any set.");
+        }
+        return index;
+    }
+
+    @Override
+    public int findSet(T item) {
+        return findSet(indexOf(item));
+    }
+
+    public int findSet(int index) {
+        while (true) {
+            long node = nodes.get(index);
+            int parent = parentOf(node);
+            if (parent == index) {
+                return index;
+            }
+            int grandparent = parentOf(nodes.get(parent));
+            if (parent != grandparent) {
+                // Path halving; losing the race just means someone else shortened it first
+                nodes.compareAndSet(index, node, pack(rankOf(node), grandparent));
+            }
+            index = grandparent;
+        }
+    }
+
+    @Override
+    public boolean union(T item1, T item2) {
+        return union(indexOf(item1), indexOf(item2));
+    }
+
+    public boolean union(int index1, int index2) {
+        while (true) {
+            int root1 = findSet(index1);
+            int root2 = findSet(index2);
+            if (root1 == root2) {
+                return false;
+            }
+            long node1 = nodes.get(root1);
+            long node2 = nodes.get(root2);
+            if (parentOf(node1) != root1 || parentOf(node2) != root2) {
+                continue;
+            }
+            int rank1 = rankOf(node1);
+            int rank2 = rankOf(node2);
+            // Link the lower-ranked root under the other; break ties by index so that
+            // concurrent unions can never link two roots under each other
+            if (rank1 > rank2 || (rank1 == rank2 && root1 > root2)) {
+                int tempRoot = root1;
+                root1 = root2;
+                root2 = tempRoot;
+                long tempNode = node1;
+                node1 = node2;
+                node2 = tempNode;
+            }
+            if (!nodes.compareAndSet(root1, node1, pack(rankOf(node1), root2))) {
+                continue;
+            }
+            if (rankOf(node1) == rankOf(node2)) {
+                // Best effort; a failed bump only costs balance, not correctness
+                nodes.compareAndSet(root2, node2, pack(rankOf(node2) + 1, root2));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns whether the two elements are currently in the same set.
+     */
+    public boolean sameSet(int index1, int index2) {
+        while (true) {
+            int root1 = findSet(index1);
+            int root2 = findSet(index2);
+            if (root1 == root2) {
+                return true;
+            }
+            // If root1 is still a root, the two were in different sets when root2 was found
+            if (parentOf(nodes.get(root1)) == root1) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package benchmarks;
+
+import maps.ChainedHashMap;
+import maps.ConcurrentChainedHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares maps shared between threads: a ChainedHashMap behind one global lock, the
+ * lock-striped ConcurrentChainedHashMap, and java.util.concurrent.ConcurrentHashMap as a
+ * baseline.
+ *
+ * {@code getShared} runs reads on every available core; the {@code mixed} group runs seven
+ * reader threads against one writer. Vary the thread count with JMH's {@code -t} option to
+ * see how read throughput scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentMapBenchmark {
+    @Param({"ChainedHashMap+lock", "ConcurrentChainedHashMap", "ConcurrentHashMap"})
+    public String implementation;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Map<Integer, Integer> map;
+    private Integer[] keys;
+
+    /**
+     * Each thread walks the keys from its own random starting point.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int position;
+
+        @Setup
+        public void setUp() {
+            position = new Random().nextInt(Integer.MAX_VALUE);
+        }
+
+        int next(int size) {
+            position = position + 1 == Integer.MAX_VALUE ? 0 : position + 1;
+            return position % size;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        switch (implementation) {
+            case "ChainedHashMap+lock":
+                map = Collections.synchronizedMap(new ChainedHashMap<>());
+                break;
+            case "ConcurrentChainedHashMap":
+                map = new ConcurrentChainedHashMap<>();
+                break;
+            case "ConcurrentHashMap":
+                map = new ConcurrentHashMap<>();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown map: " + implementation);
+        }
+        Random rand = new Random(373);
+        keys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = rand.nextInt() & Integer.MAX_VALUE;
+            map.put(keys[i], i);
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Integer getShared(Cursor cursor) {
+        return map.get(keys[cursor.next(size)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public Integer mixedGet(Cursor cursor) {
+        return map.get(keys[cursor.next(size)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Integer mixedPut(Cursor cursor) {
+        int i = cursor.next(size);
+        return map.put(keys[i], i);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Integer putIfAbsentShared(Cursor cursor) {
+        int i = cursor.next(size);
+        return map.putIfAbsent(keys[i], i);
+    }
+}
@@ -0,0 +1,614 @@
+package graphs.shortestpaths;
+
+import graphs.BaseEdge;
+import graphs.CompactGraph;
+import graphs.Graph;
+import priorityqueues.IntMinHeap;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A contraction hierarchy over a {@link CompactGraph}: a vertex ordering plus the shortcut
+ * arcs needed to preserve shortest-path distances when vertices are removed in that order.
+ *
+ * Vertices are contracted one at a time, least important first. Contracting {@code v} adds a
+ * shortcut {@code u -> w} for every pair of remaining neighbors whose only shortest path runs
+ * through {@code v}, which is checked with a bounded local "witness" Dijkstra search from
+ * {@code u} that avoids {@code v}. Importance is the edge difference (shortcuts added minus
+ * arcs removed) plus the number of already-contracted neighbors, and is re-evaluated lazily
+ * when a vertex reaches the front of the queue and eagerly for the neighbors of each
+ * contracted vertex.
+ *
+ * The result is stored as two upward CSR graphs: for each vertex, its arcs to higher-ranked
+ * vertices, and the arcs into it from higher-ranked vertices. Each arc is either an arc of
+ * the compact graph or a shortcut made of two other arcs, which is how paths are unpacked.
+ * Queries are answered by {@link ContractionHierarchyQuery}.
+ *
+ * Building is a one-off, offline step; use {@link #save} and {@link #load} to reuse the
+ * result. Directed graphs are supported.
+ */
+public class ContractionHierarchy<V, E extends BaseEdge<V, E>> {
+    private static final int MAGIC = 0x43484945; // "CHIE"
+    private static final int VERSION = 1;
+    private static final int NONE = -1;
+    // Witness searches give up after settling this many vertices (and add the shortcut)
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final CompactGraph<V, E> graph;
+    // The graph the hierarchy was built from, which may be the compact graph itself
+    private final Graph<V, E> sourceGraph;
+    private final int[] ranks;
+
+    // Every arc of the hierarchy. For an original arc, arcFirst is its index in the compact
+    // graph and arcSecond is NONE; for a shortcut, they are the two arcs it stands for.
+    private final int[] arcFrom;
+    private final int[] arcTo;
+    private final double[] arcWeights;
+    private final int[] arcFirst;
+    private final int[] arcSecond;
+
+    // Upward arcs out of each vertex, and upward arcs into it (by arc id)
+    private final int[] upOffsets;
+    private final int[] upArcs;
+    private final int[] downOffsets;
+    private final int[] downArcs;
+
+    private ContractionHierarchy(CompactGraph<V, E> graph, Graph<V, E> sourceGraph, int[] ranks, int[] arcFrom,
+                                 int[] arcTo, double[] arcWeights, int[] arcFirst, int[] arcSecond) {
+        this.graph = graph;
+        this.sourceGraph = sourceGraph;
+        this.ranks = ranks;
+        this.arcFrom = arcFrom;
+        this.arcTo = arcTo;
+        this.arcWeights = arcWeights;
+        this.arcFirst = arcFirst;
+        this.arcSecond = arcSecond;
+
+        int n = graph.vertexCount();
+        this.upOffsets = new int[n + 1];
+        this.downOffsets = new int[n + 1];
+        for (int arc = 0; arc < arcFrom.length; arc++) {
+            if (ranks[arcFrom[arc]] < ranks[arcTo[arc]]) {
+                upOffsets[arcFrom[arc] + 1]++;
+            } else if (ranks[arcFrom[arc]] > ranks[arcTo[arc]]) {
+                downOffsets[arcTo[arc] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+        this.upArcs = new int[upOffsets[n]];
+        this.downArcs = new int[downOffsets[n]];
+        int[] upNext = Arrays.copyOf(upOffsets, n);
+        int[] downNext = Arrays.copyOf(downOffsets, n);
+        for (int arc = 0; arc < arcFrom.length; arc++) {
+            if (ranks[arcFrom[arc]] < ranks[arcTo[arc]]) {
+                upArcs[upNext[arcFrom[arc]]++] = arc;
+            } else if (ranks[arcFrom[arc]] > ranks[arcTo[arc]]) {
+                downArcs[downNext[arcTo[arc]]++] = arc;
+            }
+        }
+    }
+
+    /**
+     * Builds a contraction hierarchy for the given graph. Edge weights must be non-negative.
+     */
+    public static <V, E extends BaseEdge<V, E>> ContractionHierarchy<V, E> build(CompactGraph<V, E> graph) {
+        return new Builder<>(graph, graph).build();
+    }
+
+    /**
+     * Builds a contraction hierarchy for the part of the given graph reachable from
+     * {@code roots}; see {@link CompactGraph#of(Graph, Collection)}.
+     */
+    public static <V, E extends BaseEdge<V, E>> ContractionHierarchy<V, E> build(Graph<V, E> graph,
+                                                                                Collection<V> roots) {
+        return new Builder<>(CompactGraph.of(graph, roots), graph).build();
+    }
+
+    public CompactGraph<V, E> graph() {
+        return graph;
+    }
+
+    /**
+     * Returns the graph the hierarchy was built or loaded for: the one passed to
+     * {@link #build(Graph, Collection)}, or the compact graph if it was built from that.
+     */
+    public Graph<V, E> sourceGraph() {
+        return sourceGraph;
+    }
+
+    /**
+     * Returns whether queries on the given graph can be answered by this hierarchy, which is
+     * the case for the source graph and the compact graph.
+     */
+    boolean isBuiltFor(Graph<?, ?> graph) {
+        return graph == this.graph || graph == sourceGraph;
+    }
+
+    public int rank(int vertexId) {
+        return ranks[vertexId];
+    }
+
+    public int arcCount() {
+        return arcFrom.length;
+    }
+
+    public int shortcutCount() {
+        return arcFrom.length - graph.arcCount();
+    }
+
+    /*
+    Accessors for ContractionHierarchyQuery
+     */
+
+    int upStart(int vertexId) {
+        return upOffsets[vertexId];
+    }
+
+    int upEnd(int vertexId) {
+        return upOffsets[vertexId + 1];
+    }
+
+    int upArc(int index) {
+        return upArcs[index];
+    }
+
+    int downStart(int vertexId) {
+        return downOffsets[vertexId];
+    }
+
+    int downEnd(int vertexId) {
+        return downOffsets[vertexId + 1];
+    }
+
+    int downArc(int index) {
+        return downArcs[index];
+    }
+
+    int arcFrom(int arc) {
+        return arcFrom[arc];
+    }
+
+    int arcTo(int arc) {
+        return arcTo[arc];
+    }
+
+    double arcWeight(int arc) {
+        return arcWeights[arc];
+    }
+
+    boolean isShortcut(int arc) {
+        return arcSecond[arc] != NONE;
+    }
+
+    /**
+     * Returns the compact graph arc behind an original arc.
+     */
+    int originalArc(int arc) {
+        return arcFirst[arc];
+    }
+
+    int firstHalf(int shortcut) {
+        return arcFirst[shortcut];
+    }
+
+    int secondHalf(int shortcut) {
+        return arcSecond[shortcut];
+    }
+
+    /**
+     * Writes the hierarchy to the given stream. The graph itself is not written; only a
+     * fingerprint of it, which {@link #load} checks.
+     */
+    public void save(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(graph.vertexCount());
+        data.writeInt(graph.arcCount());
+        data.writeLong(fingerprint(graph));
+        for (int rank : ranks) {
+            data.writeInt(rank);
+        }
+        data.writeInt(arcFrom.length);
+        for (int arc = 0; arc < arcFrom.length; arc++) {
+            data.writeInt(arcFrom[arc]);
+            data.writeInt(arcTo[arc]);
+            data.writeDouble(arcWeights[arc]);
+            data.writeInt(arcFirst[arc]);
+            data.writeInt(arcSecond[arc]);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a hierarchy written by {@link #save} for the given graph.
+     *
+     * @throws IOException if the stream is malformed or was saved for a different graph
+     */
+    public static <V, E extends BaseEdge<V, E>> ContractionHierarchy<V, E> load(
+        InputStream in, CompactGraph<V, E> graph) throws IOException {
+        return load(in, graph, graph);
+    }
+
+    /**
+     * Reads a hierarchy written by {@link #save} for the part of the given graph reachable from
+     * {@code roots}, as built by {@link #build(Graph, Collection)}.
+     *
+     * @throws IOException if the stream is malformed or was saved for a different graph
+     */
+    public static <V, E extends BaseEdge<V, E>> ContractionHierarchy<V, E> load(
+        InputStream in, Graph<V, E> graph, Collection<V> roots) throws IOException {
+        return load(in, CompactGraph.of(graph, roots), graph);
+    }
+
+    private static <V, E extends BaseEdge<V, E>> ContractionHierarchy<V, E> load(
+        InputStream in, CompactGraph<V, E> graph, Graph<V, E> sourceGraph) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a contraction hierarchy.");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported contraction hierarchy version " + version + ".");
+        }
+        int n = graph.vertexCount();
+        if (data.readInt() != n || data.readInt() != graph.arcCount() || data.readLong() != fingerprint(graph)) {
+            throw new IOException("Contraction hierarchy was built for a different graph.");
+        }
+        int[] ranks = new int[n];
+        boolean[] seen = new boolean[n];
+        for (int v = 0; v < n; v++) {
+            ranks[v] = data.readInt();
+            if (ranks[v] < 0 || ranks[v] >= n || seen[ranks[v]]) {
+                throw new IOException("Corrupt vertex ranks.");
+            }
+            seen[ranks[v]] = true;
+        }
+        int arcCount = data.readInt();
+        if (arcCount < graph.arcCount()) {
+            throw new IOException("Corrupt arc count.");
+        }
+        int[] arcFrom = new int[arcCount];
+        int[] arcTo = new int[arcCount];
+        double[] arcWeights = new double[arcCount];
+        int[] arcFirst = new int[arcCount];
+        int[] arcSecond = new int[arcCount];
+        for (int arc = 0; arc < arcCount; arc++) {
+            arcFrom[arc] = data.readInt();
+            arcTo[arc] = data.readInt();
+            arcWeights[arc] = data.readDouble();
+            arcFirst[arc] = data.readInt();
+            arcSecond[arc] = data.readInt();
+            boolean valid = arcFrom[arc] >= 0 && arcFrom[arc] < n && arcTo[arc] >= 0 && arcTo[arc] < n
+                && (arcSecond[arc] == NONE
+                    ? arcFirst[arc] >= 0 && arcFirst[arc] < graph.arcCount()
+                    // Shortcuts only refer to arcs created before them
+                    : arcFirst[arc] >= 0 && arcFirst[arc] < arc && arcSecond[arc] >= 0 && arcSecond[arc] < arc);
+            if (!valid) {
+                throw new IOException("Corrupt arc " + arc + ".");
+            }
+        }
+        return new ContractionHierarchy<>(graph, sourceGraph, ranks, arcFrom, arcTo, arcWeights, arcFirst, arcSecond);
+    }
+
+    private static long fingerprint(CompactGraph<?, ?> graph) {
+        long hash = 1125899906842597L;
+        for (int v = 0; v < graph.vertexCount(); v++) {
+            hash = 31 * hash + graph.arcEnd(v);
+        }
+        for (int arc = 0; arc < graph.arcCount(); arc++) {
+            hash = 31 * hash + graph.arcTarget(arc);
+            hash = 31 * hash + Double.doubleToLongBits(graph.arcWeight(arc));
+        }
+        return hash;
+    }
+
+    /**
+     * The contraction state: arcs grow as shortcuts are added, and each vertex keeps the ids of
+     * the arcs touching it, including ones to contracted vertices, which are skipped.
+     */
+    private static class Builder<V, E extends BaseEdge<V, E>> {
+        private final CompactGraph<V, E> graph;
+        private final Graph<V, E> sourceGraph;
+        private final int n;
+
+        private int arcCount;
+        private int[] arcFrom;
+        private int[] arcTo;
+        private double[] arcWeights;
+        private int[] arcFirst;
+        private int[] arcSecond;
+
+        private final int[][] outArcs;
+        private final int[] outCounts;
+        private final int[][] inArcs;
+        private final int[] inCounts;
+
+        private final boolean[] contracted;
+        private final int[] contractedNeighbors;
+
+        // Witness search scratch, invalidated by stamp
+        private final double[] distTo;
+        private final int[] stamps;
+        private int stamp;
+        private final IntMinHeap witnessHeap;
+
+        // Cheapest arc to each neighbor of the vertex being contracted, invalidated by stamp
+        private final int[] bestArc;
+        private final int[] bestStamps;
+        private int bestStamp;
+        private int[] neighbors;
+
+        Builder(CompactGraph<V, E> graph, Graph<V, E> sourceGraph) {
+            this.graph = graph;
+            this.sourceGraph = sourceGraph;
+            this.n = graph.vertexCount();
+            int m = graph.arcCount();
+            int capacity = Math.max(16, 2 * m);
+            this.arcFrom = new int[capacity];
+            this.arcTo = new int[capacity];
+            this.arcWeights = new double[capacity];
+            this.arcFirst = new int[capacity];
+            this.arcSecond = new int[capacity];
+            this.outArcs = new int[n][];
+            this.outCounts = new int[n];
+            this.inArcs = new int[n][];
+            this.inCounts = new int[n];
+            for (int v = 0; v < n; v++) {
+                outArcs[v] = new int[Math.max(4, graph.arcEnd(v) - graph.arcStart(v))];
+                inArcs[v] = new int[4];
+            }
+            for (int arc = 0; arc < m; arc++) {
+                int from = sourceOf(arc);
+                addArc(from, graph.arcTarget(arc), graph.arcWeight(arc), arc, NONE);
+            }
+            this.contracted = new boolean[n];
+            this.contractedNeighbors = new int[n];
+            this.distTo = new double[n];
+            this.stamps = new int[n];
+            this.witnessHeap = new IntMinHeap(n);
+            this.bestArc = new int[n];
+            this.bestStamps = new int[n];
+            this.neighbors = new int[16];
+        }
+
+        private int sourceOf(int arc) {
+            // Arcs are grouped by source; find it by binary search over the CSR offsets
+            int low = 0;
+            int high = n - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (graph.arcStart(mid) <= arc) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        private int addArc(int from, int to, double weight, int first, int second) {
+            if (arcCount == arcFrom.length) {
+                int newCapacity = 2 * arcCount;
+                arcFrom = Arrays.copyOf(arcFrom, newCapacity);
+                arcTo = Arrays.copyOf(arcTo, newCapacity);
+                arcWeights = Arrays.copyOf(arcWeights, newCapacity);
+                arcFirst = Arrays.copyOf(arcFirst, newCapacity);
+                arcSecond = Arrays.copyOf(arcSecond, newCapacity);
+            }
+            int arc = arcCount++;
+            arcFrom[arc] = from;
+            arcTo[arc] = to;
+            arcWeights[arc] = weight;
+            arcFirst[arc] = first;
+            arcSecond[arc] = second;
+            if (from != to) {
+                append(outArcs, outCounts, from, arc);
+                append(inArcs, inCounts, to, arc);
+            }
+            return arc;
+        }
+
+        private static void append(int[][] lists, int[] counts, int vertex, int arc) {
+            if (counts[vertex] == lists[vertex].length) {
+                lists[vertex] = Arrays.copyOf(lists[vertex], 2 * counts[vertex]);
+            }
+            lists[vertex][counts[vertex]++] = arc;
+        }
+
+        ContractionHierarchy<V, E> build() {
+            IntMinHeap queue = new IntMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.addOrUpdate(v, importance(v));
+            }
+            int[] ranks = new int[n];
+            int nextRank = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.removeMin();
+                // Lazy update: if v got more important since it was queued, requeue it
+                double current = importance(v);
+                if (!queue.isEmpty() && current > queue.peekMinKey()) {
+                    queue.addOrUpdate(v, current);
+                    continue;
+                }
+                contract(v, false);
+                contracted[v] = true;
+                ranks[v] = nextRank++;
+
+                int neighborCount = collectNeighbors(v);
+                for (int i = 0; i < neighborCount; i++) {
+                    int neighbor = neighbors[i];
+                    contractedNeighbors[neighbor]++;
+                    queue.addOrUpdate(neighbor, importance(neighbor));
+                }
+            }
+            return new ContractionHierarchy<>(graph, sourceGraph, ranks, Arrays.copyOf(arcFrom, arcCount),
+                Arrays.copyOf(arcTo, arcCount), Arrays.copyOf(arcWeights, arcCount),
+                Arrays.copyOf(arcFirst, arcCount), Arrays.copyOf(arcSecond, arcCount));
+        }
+
+        private double importance(int v) {
+            int removed = 0;
+            for (int i = 0; i < outCounts[v]; i++) {
+                if (!contracted[arcTo[outArcs[v][i]]]) {
+                    removed++;
+                }
+            }
+            for (int i = 0; i < inCounts[v]; i++) {
+                if (!contracted[arcFrom[inArcs[v][i]]]) {
+                    removed++;
+                }
+            }
+            return contract(v, true) - removed + contractedNeighbors[v];
+        }
+
+        /**
+         * Contracts v, adding the shortcuts it needs, or only counts them if simulating.
+         */
+        private int contract(int v, boolean simulate) {
+            // Cheapest remaining arc out of v to each neighbor
+            int[] outTargets = new int[outCounts[v]];
+            int outCount = 0;
+            nextBestStamp();
+            for (int i = 0; i < outCounts[v]; i++) {
+                int arc = outArcs[v][i];
+                int w = arcTo[arc];
+                if (contracted[w]) {
+                    continue;
+                }
+                if (bestStamps[w] != bestStamp) {
+                    bestStamps[w] = bestStamp;
+                    bestArc[w] = arc;
+                    outTargets[outCount++] = w;
+                } else if (arcWeights[arc] < arcWeights[bestArc[w]]) {
+                    bestArc[w] = arc;
+                }
+            }
+            int[] outBest = new int[outCount];
+            double maxOut = 0.0;
+            for (int i = 0; i < outCount; i++) {
+                outBest[i] = bestArc[outTargets[i]];
+                maxOut = Math.max(maxOut, arcWeights[outBest[i]]);
+            }
+
+            // ...and cheapest remaining arc into v from each neighbor
+            int[] inSources = new int[inCounts[v]];
+            int inCount = 0;
+            nextBestStamp();
+            for (int i = 0; i < inCounts[v]; i++) {
+                int arc = inArcs[v][i];
+                int u = arcFrom[arc];
+                if (contracted[u]) {
+                    continue;
+                }
+                if (bestStamps[u] != bestStamp) {
+                    bestStamps[u] = bestStamp;
+                    bestArc[u] = arc;
+                    inSources[inCount++] = u;
+                } else if (arcWeights[arc] < arcWeights[bestArc[u]]) {
+                    bestArc[u] = arc;
+                }
+            }
+
+            int shortcuts = 0;
+            for (int i = 0; i < inCount; i++) {
+                int u = inSources[i];
+                int inArc = bestArc[u];
+                double inWeight = arcWeights[inArc];
+                witnessSearch(u, v, inWeight + maxOut);
+                for (int j = 0; j < outCount; j++) {
+                    int w = outTargets[j];
+                    if (w == u) {
+                        continue;
+                    }
+                    int outArc = outBest[j];
+                    double viaV = inWeight + arcWeights[outArc];
+                    if (stamps[w] == stamp && distTo[w] <= viaV) {
+                        continue;
+                    }
+                    shortcuts++;
+                    if (!simulate) {
+                        addArc(u, w, viaV, inArc, outArc);
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Runs Dijkstra from source over uncontracted vertices other than {@code skip}, up to
+         * distance {@code limit}, leaving the distances in {@code distTo}.
+         */
+        private void witnessSearch(int source, int skip, double limit) {
+            nextStamp();
+            witnessHeap.clear();
+            stamps[source] = stamp;
+            distTo[source] = 0.0;
+            witnessHeap.addOrUpdate(source, 0.0);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                if (witnessHeap.peekMinKey() > limit) {
+                    break;
+                }
+                int current = witnessHeap.removeMin();
+                settled++;
+                for (int i = 0; i < outCounts[current]; i++) {
+                    int arc = outArcs[current][i];
+                    int next = arcTo[arc];
+                    if (next == skip || contracted[next]) {
+                        continue;
+                    }
+                    double newDist = distTo[current] + arcWeights[arc];
+                    if (stamps[next] != stamp || newDist < distTo[next]) {
+                        stamps[next] = stamp;
+                        distTo[next] = newDist;
+                        witnessHeap.addOrUpdate(next, newDist);
+                    }
+                }
+            }
+        }
+
+        private int collectNeighbors(int v) {
+            nextBestStamp();
+            int count = 0;
+            for (int i = 0; i < outCounts[v] + inCounts[v]; i++) {
+                int neighbor = i < outCounts[v]
+                    ? arcTo[outArcs[v][i]]
+                    : arcFrom[inArcs[v][i - outCounts[v]]];
+                if (contracted[neighbor] || bestStamps[neighbor] == bestStamp) {
+                    continue;
+                }
+                bestStamps[neighbor] = bestStamp;
+                if (count == neighbors.length) {
+                    neighbors = Arrays.copyOf(neighbors, 2 * count);
+                }
+                neighbors[count++] = neighbor;
+            }
+            return count;
+        }
+
+        private void nextStamp() {
+            stamp++;
+            if (stamp == 0) {
+                Arrays.fill(stamps, 0);
+                stamp = 1;
+            }
+        }
+
+        private void nextBestStamp() {
+            bestStamp++;
+            if (bestStamp == 0) {
+                Arrays.fill(bestStamps, 0);
+                bestStamp = 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package graphs.shortestpaths;
+
+import graphs.BaseEdge;
+import graphs.CompactGraph;
+import graphs.Graph;
+import priorityqueues.IntMinHeap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Answers point-to-point queries on a {@link ContractionHierarchy}.
+ *
+ * Each query runs two Dijkstra searches that only climb the hierarchy: a forward one from the
+ * start over upward arcs, and a backward one from the end over upward arcs into it. Every
+ * shortest path has a highest-ranked vertex where the two searches meet, and a direction
+ * stops once its smallest queued distance can no longer beat the best meeting found. Shortcuts
+ * on the resulting path are then unpacked back into the graph's own edges.
+ *
+ * A query object keeps its scratch arrays between queries, so it is cheap to reuse but must
+ * not be shared between threads; create one per thread instead.
+ *
+ * As a {@link ShortestPathFinder}, it answers queries on the graph its hierarchy was built
+ * from, or on the hierarchy's compact graph. The hierarchy is not updated if that graph
+ * changes afterwards.
+ */
+public class ContractionHierarchyQuery<G extends Graph<V, E>, V, E extends BaseEdge<V, E>>
+    implements ShortestPathFinder<G, V, E> {
+    private static final int FORWARD = 0;
+    private static final int BACKWARD = 1;
+
+    private final ContractionHierarchy<V, E> hierarchy;
+    private final CompactGraph<V, E> graph;
+
+    // Per-direction search state, invalidated by stamp
+    private final double[][] distTo;
+    private final int[][] arcTo;
+    private final int[][] stamps;
+    private final IntMinHeap[] heaps;
+    private int stamp;
+
+    private int meeting;
+    private double bestDistance;
+
+    public ContractionHierarchyQuery(ContractionHierarchy<V, E> hierarchy) {
+        this.hierarchy = hierarchy;
+        this.graph = hierarchy.graph();
+        int n = graph.vertexCount();
+        this.distTo = new double[2][n];
+        this.arcTo = new int[2][n];
+        this.stamps = new int[2][n];
+        this.heaps = new IntMinHeap[] {new IntMinHeap(n), new IntMinHeap(n)};
+        this.stamp = 0;
+    }
+
+    @Override
+    public ShortestPath<V, E> findShortestPath(G graph, V start, V end) {
+        if (!hierarchy.isBuiltFor(graph)) {
+            throw new IllegalArgumentException("Hierarchy was built for a different graph.");
+        }
+        return findShortestPath(start, end);
+    }
+
+    public ShortestPath<V, E> findShortestPath(V start, V end) {
+        if (start.equals(end)) {
+            return new ShortestPath.SingleVertex<>(start);
+        }
+        int source = graph.idOf(start);
+        int target = graph.idOf(end);
+        if (source < 0 || target < 0 || !search(source, target)) {
+            return new ShortestPath.Failure<>();
+        }
+
+        // Climb from the meeting vertex down each side, collecting hierarchy arcs in order
+        List<Integer> arcs = new ArrayList<>();
+        for (int at = meeting; at != source; at = hierarchy.arcFrom(arcTo[FORWARD][at])) {
+            arcs.add(arcTo[FORWARD][at]);
+        }
+        Collections.reverse(arcs);
+        for (int at = meeting; at != target; at = hierarchy.arcTo(arcTo[BACKWARD][at])) {
+            arcs.add(arcTo[BACKWARD][at]);
+        }
+
+        List<E> path = new ArrayList<>();
+        int[] pending = new int[16];
+        for (int arc : arcs) {
+            // Unpack depth-first, second half pushed first so the first half comes out first
+            int size = 0;
+            pending[size++] = arc;
+            while (size > 0) {
+                int current = pending[--size];
+                if (!hierarchy.isShortcut(current)) {
+                    path.add(graph.arcEdge(hierarchy.originalArc(current)));
+                    continue;
+                }
+                if (size + 2 > pending.length) {
+                    pending = Arrays.copyOf(pending, 2 * pending.length);
+                }
+                pending[size++] = hierarchy.secondHalf(current);
+                pending[size++] = hierarchy.firstHalf(current);
+            }
+        }
+        return new ShortestPath.Success<>(path);
+    }
+
+    /**
+     * Returns the length of the shortest path from start to end, or infinity if there is none.
+     */
+    public double distance(V start, V end) {
+        if (start.equals(end)) {
+            return 0.0;
+        }
+        int source = graph.idOf(start);
+        int target = graph.idOf(end);
+        if (source < 0 || target < 0 || !search(source, target)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return bestDistance;
+    }
+
+    private boolean search(int source, int target) {
+        nextStamp();
+        heaps[FORWARD].clear();
+        heaps[BACKWARD].clear();
+        visit(FORWARD, source, 0.0, -1);
+        visit(BACKWARD, target, 0.0, -1);
+        heaps[FORWARD].addOrUpdate(source, 0.0);
+        heaps[BACKWARD].addOrUpdate(target, 0.0);
+        meeting = -1;
+        bestDistance = Double.POSITIVE_INFINITY;
+
+        while (true) {
+            boolean forwardDone = heaps[FORWARD].isEmpty() || heaps[FORWARD].peekMinKey() >= bestDistance;
+            boolean backwardDone = heaps[BACKWARD].isEmpty() || heaps[BACKWARD].peekMinKey() >= bestDistance;
+            if (forwardDone && backwardDone) {
+                break;
+            }
+            // Advance the direction with the smaller frontier distance
+            int direction;
+            if (forwardDone) {
+                direction = BACKWARD;
+            } else if (backwardDone) {
+                direction = FORWARD;
+            } else {
+                direction = heaps[FORWARD].peekMinKey() <= heaps[BACKWARD].peekMinKey() ? FORWARD : BACKWARD;
+            }
+            settle(direction);
+        }
+        return meeting >= 0;
+    }
+
+    private void settle(int direction) {
+        int other = 1 - direction;
+        int current = heaps[direction].removeMin();
+        double dist = distTo[direction][current];
+        if (stamps[other][current] == stamp && dist + distTo[other][current] < bestDistance) {
+            bestDistance = dist + distTo[other][current];
+            meeting = current;
+        }
+        int from = direction == FORWARD ? hierarchy.upStart(current) : hierarchy.downStart(current);
+        int to = direction == FORWARD ? hierarchy.upEnd(current) : hierarchy.downEnd(current);
+        for (int i = from; i < to; i++) {
+            int arc = direction == FORWARD ? hierarchy.upArc(i) : hierarchy.downArc(i);
+            int next = direction == FORWARD ? hierarchy.arcTo(arc) : hierarchy.arcFrom(arc);
+            double newDist = dist + hierarchy.arcWeight(arc);
+            if (stamps[direction][next] != stamp || newDist < distTo[direction][next]) {
+                visit(direction, next, newDist, arc);
+                heaps[direction].addOrUpdate(next, newDist);
+            }
+        }
+    }
+
+    private void visit(int direction, int vertex, double dist, int arc) {
+        stamps[direction][vertex] = stamp;
+        distTo[direction][vertex] = dist;
+        arcTo[direction][vertex] = arc;
+    }
+
+    private void nextStamp() {
+        stamp++;
+        if (stamp == 0) {
+            // Wrapped around: old stamps could collide with new ones, so wipe them
+            Arrays.fill(stamps[FORWARD], 0);
+            Arrays.fill(stamps[BACKWARD], 0);
+            stamp = 1;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named, thread-safe running total.
+ */
+public final class Counter {
+    private final String name;
+    private final LongAdder total;
+
+    Counter(String name) {
+        this.name = name;
+        this.total = new LongAdder();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void increment() {
+        total.increment();
+    }
+
+    public void add(long amount) {
+        total.add(amount);
+    }
+
+    public long get() {
+        return total.sum();
+    }
+
+    public void reset() {
+        total.reset();
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + get();
+    }
+}
@@ -0,0 +1,55 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodic JFR snapshot of the running totals in {@link Metrics}.
+ */
+@Name("datastructures.Stats")
+@Label("Data Structure Stats")
+@Category("Data Structures")
+@Description("Running totals of map, heap and disjoint set operation metrics")
+@Period("1 s")
+@StackTrace(false)
+class DataStructureStatsEvent extends jdk.jfr.Event {
+    @Label("Chain Lookups")
+    long chainLookups;
+
+    @Label("Mean Chain Length")
+    double meanChainLength;
+
+    @Label("Max Chain Length")
+    long maxChainLength;
+
+    @Label("Probe Lookups")
+    long probeLookups;
+
+    @Label("Mean Probe Length")
+    double meanProbeLength;
+
+    @Label("Max Probe Length")
+    long maxProbeLength;
+
+    @Label("Map Resizes")
+    long mapResizes;
+
+    @Label("Heap Operations")
+    long heapOperations;
+
+    @Label("Mean Swaps per Heap Operation")
+    double meanHeapSwaps;
+
+    @Label("Finds")
+    long finds;
+
+    @Label("Mean Find Path Length")
+    double meanFindPathLength;
+
+    @Label("Max Find Path Length")
+    long maxFindPathLength;
+}
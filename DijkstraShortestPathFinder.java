@@ -1,45 +1,122 @@
 package graphs.shortestpaths;
 
 import graphs.BaseEdge;
+import graphs.CompactGraph;
 import graphs.Graph;
+import maps.ObjectDoubleHashMap;
+import maps.OpenAddressingHashMap;
+import priorityqueues.BucketMinPQ;
 import priorityqueues.ExtrinsicMinPQ;
-import priorityqueues.DoubleMapMinPQ;
+import priorityqueues.IndexedArrayHeapMinPQ;
+import priorityqueues.IntMinHeap;
+import priorityqueues.RadixHeapMinPQ;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 public class DijkstraShortestPathFinder<G extends Graph<V, E>, V, E extends BaseEdge<V, E>>
     extends SPTShortestPathFinder<G, V, E> {
 
+    /**
+     * The kinds of priority queue {@link #createMinPQ()} can build.
+     *
+     * The radix heap and bucket queue rely on Dijkstra only ever removing non-decreasing
+     * priorities, which holds for non-negative edge weights. The bucket queue does best when
+     * edge weights span a modest number of buckets.
+     */
+    public enum QueueType {
+        INDEXED_HEAP, RADIX_HEAP, BUCKET_QUEUE
+    }
+
+    private final QueueType queueType;
+    private final double bucketWidth;
+    protected int lastSettledCount;
+
+    public DijkstraShortestPathFinder() {
+        this(QueueType.INDEXED_HEAP);
+    }
+
+    /**
+     * @param queueType the priority queue to use; for {@code BUCKET_QUEUE}, use
+     *                  {@link #DijkstraShortestPathFinder(double)} to pick the bucket width
+     */
+    public DijkstraShortestPathFinder(QueueType queueType) {
+        this(queueType, 1.0);
+    }
+
+    /**
+     * Constructs a finder that uses a bucket queue with the given bucket width.
+     *
+     * @param bucketWidth the range of distances per bucket. Must be > 0.
+     */
+    public DijkstraShortestPathFinder(double bucketWidth) {
+        this(QueueType.BUCKET_QUEUE, bucketWidth);
+    }
+
+    private DijkstraShortestPathFinder(QueueType queueType, double bucketWidth) {
+        if (!(bucketWidth > 0)) {
+            throw new IllegalArgumentException("Bucket width must be positive.");
+        }
+        this.queueType = queueType;
+        this.bucketWidth = bucketWidth;
+    }
+
+    /**
+     * Returns how many vertices the most recent search removed from its priority queue.
+     */
+    public int getLastSettledCount() {
+        return lastSettledCount;
+    }
+
     protected <T> ExtrinsicMinPQ<T> createMinPQ() {
-        return new DoubleMapMinPQ<>();
+        switch (queueType) {
+            case RADIX_HEAP:
+                return new RadixHeapMinPQ<>();
+            case BUCKET_QUEUE:
+                return new BucketMinPQ<>(bucketWidth);
+            default:
+                return new IndexedArrayHeapMinPQ<>();
+        }
     }
 
     @Override
     protected Map<V, E> constructShortestPathsTree(G graph, V start, V end) {
-        Map<V, E> edgeTo = new HashMap<>();
-        Map<V, Double> distTo = new HashMap<>();
+        if (graph instanceof CompactGraph) {
+            @SuppressWarnings("unchecked")
+            CompactGraph<V, E> compactGraph = (CompactGraph<V, E>) graph;
+            return constructCompactShortestPathsTree(compactGraph, start, end);
+        }
+        Map<V, E> edgeTo = new OpenAddressingHashMap<>();
+        // Unseen vertices read as infinitely far, so one probe covers "seen?" and "how far?"
+        ObjectDoubleHashMap<V> distTo = new ObjectDoubleHashMap<>(Double.POSITIVE_INFINITY);
         ExtrinsicMinPQ<V> pq = createMinPQ();
+        int settled = 0;
 
         // Initialize only the starting vertex
-        distTo.put(start, 0.0);
+        distTo.putDouble(start, 0.0);
         pq.add(start, 0.0);
 
         // Process the graph
         while (!pq.isEmpty()) {
             V current = pq.removeMin();
+            settled++;
             // Early exit if we reached the end
             if (current.equals(end)) {
                 break;
             }
 
+            double currentDist = distTo.getDouble(current);
             for (E edge : graph.outgoingEdgesFrom(current)) {
                 V next = edge.to();
-                double newDist = distTo.get(current) + edge.weight();
-                // Initialize distances for vertices as we encounter them
-                if (!distTo.containsKey(next) || newDist < distTo.get(next)) {
-                    distTo.put(next, newDist);
+                double newDist = currentDist + edge.weight();
+                if (newDist < distTo.getDouble(next)) {
+                    distTo.putDouble(next, newDist);
                     edgeTo.put(next, edge);
 
                     if (pq.contains(next)) {
@@ -51,9 +128,55 @@ public class DijkstraShortestPathFinder<G extends Graph<V, E>, V, E extends Base
             }
         }
 
+        lastSettledCount = settled;
         return edgeTo;
     }
 
+    /**
+     * Same as above, but over the primitive arrays of a compact graph: distances and tree arcs
+     * live in arrays indexed by vertex id, and the queue is an {@link IntMinHeap}.
+     * (This path does not go through {@link #createMinPQ()}.)
+     */
+    private Map<V, E> constructCompactShortestPathsTree(CompactGraph<V, E> graph, V start, V end) {
+        int n = graph.vertexCount();
+        int[] arcTo = new int[n];
+        Arrays.fill(arcTo, -1);
+        int source = graph.idOf(start);
+        if (source < 0) {
+            lastSettledCount = 0;
+            return new CompactShortestPathsTree<>(graph, arcTo);
+        }
+        int target = end == null ? -1 : graph.idOf(end);
+        double[] distTo = new double[n];
+        Arrays.fill(distTo, Double.POSITIVE_INFINITY);
+        IntMinHeap pq = new IntMinHeap(n);
+        int settled = 0;
+
+        distTo[source] = 0.0;
+        pq.addOrUpdate(source, 0.0);
+
+        while (!pq.isEmpty()) {
+            int current = pq.removeMin();
+            settled++;
+            if (current == target) {
+                break;
+            }
+
+            for (int arc = graph.arcStart(current); arc < graph.arcEnd(current); arc++) {
+                int next = graph.arcTarget(arc);
+                double newDist = distTo[current] + graph.arcWeight(arc);
+                if (newDist < distTo[next]) {
+                    distTo[next] = newDist;
+                    arcTo[next] = arc;
+                    pq.addOrUpdate(next, newDist);
+                }
+            }
+        }
+
+        lastSettledCount = settled;
+        return new CompactShortestPathsTree<>(graph, arcTo);
+    }
+
     @Override
     protected ShortestPath<V, E> extractShortestPath(Map<V, E> spt, V start, V end) {
 
@@ -77,4 +200,87 @@ public class DijkstraShortestPathFinder<G extends Graph<V, E>, V, E extends Base
 
         return new ShortestPath.Success<>(path);
     }
+
+    /**
+     * A read-only map view of a shortest-paths tree stored as one arc index per vertex id.
+     */
+    private static class CompactShortestPathsTree<V, E extends BaseEdge<V, E>> extends AbstractMap<V, E> {
+        private final CompactGraph<V, E> graph;
+        private final int[] arcTo;
+        private final int size;
+
+        CompactShortestPathsTree(CompactGraph<V, E> graph, int[] arcTo) {
+            this.graph = graph;
+            this.arcTo = arcTo;
+            int count = 0;
+            for (int arc : arcTo) {
+                if (arc >= 0) {
+                    count++;
+                }
+            }
+            this.size = count;
+        }
+
+        @SuppressWarnings("unchecked")
+        private int arcOf(Object key) {
+            int id = graph.idOf((V) key);
+            return id < 0 ? -1 : arcTo[id];
+        }
+
+        @Override
+        public E get(Object key) {
+            int arc = arcOf(key);
+            return arc < 0 ? null : graph.arcEdge(arc);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return arcOf(key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<V, E>> entrySet() {
+            return new AbstractSet<Entry<V, E>>() {
+                @Override
+                public Iterator<Entry<V, E>> iterator() {
+                    return new Iterator<Entry<V, E>>() {
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            while (from < arcTo.length && arcTo[from] < 0) {
+                                from++;
+                            }
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < arcTo.length;
+                        }
+
+                        @Override
+                        public Entry<V, E> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<V, E> entry = new SimpleImmutableEntry<>(graph.vertex(next),
+                                graph.arcEdge(arcTo[next]));
+                            next = advance(next + 1);
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import disjointsets.DisjointSets;
+import disjointsets.QuickFindDisjointSets;
+import disjointsets.UnionBySizeCompressingDisjointSets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the disjoint sets implementations on a random sequence of unions and finds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisjointSetsBenchmark {
+    @Param({"UnionBySizeCompressingDisjointSets", "QuickFindDisjointSets"})
+    public String implementation;
+
+    // QuickFind unions are O(n), so keep the sizes where it still finishes
+    @Param({"1000", "10000"})
+    public int size;
+
+    private int[] pairs;
+
+    static DisjointSets<Integer> createDisjointSets(String implementation) {
+        switch (implementation) {
+            case "UnionBySizeCompressingDisjointSets":
+                return new UnionBySizeCompressingDisjointSets<>();
+            case "QuickFindDisjointSets":
+                return new QuickFindDisjointSets<>();
+            default:
+                throw new IllegalArgumentException("Unknown disjoint sets: " + implementation);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Random rand = new Random(373);
+        pairs = new int[4 * size];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = rand.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public int unionAndFind() {
+        DisjointSets<Integer> sets = createDisjointSets(implementation);
+        for (int i = 0; i < size; i++) {
+            sets.makeSet(i);
+        }
+        int checksum = 0;
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (sets.union(pairs[i], pairs[i + 1])) {
+                checksum++;
+            }
+            checksum += sets.findSet(pairs[i]);
+        }
+        return checksum;
+    }
+}
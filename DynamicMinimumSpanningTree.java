@@ -0,0 +1,737 @@
+package graphs.minspantrees;
+
+import graphs.BaseEdge;
+import graphs.KruskalGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a minimum spanning tree (or forest) up to date as edges are inserted, deleted and
+ * reweighted, reporting after each update which edges entered or left the tree.
+ *
+ * The tree is stored in a link-cut tree in which every tree edge is a node of its own, so
+ * connectivity and "heaviest edge on the path between two vertices" queries take amortized
+ * O(log V). That makes inserting an edge, lowering the weight of a tree edge and raising the
+ * weight of a non-tree edge O(log V) operations. Deleting a tree edge (or making it heavier)
+ * splits the tree in two. Every vertex keeps a list of its incident edges, so the two halves
+ * are searched in lockstep over tree edges until the smaller one has been fully explored; the
+ * lightest edge from that half that leaves it is the replacement. The cost is linear in the
+ * size of the smaller half (and its incident edges), not in the size of the graph, which in a
+ * maze is usually a small subtree.
+ *
+ * Edges are ordered by weight and then by when they were first added (graph edges in
+ * {@code allEdges()} order, then insertions), which matches the tie-breaking of
+ * {@link KruskalMinimumSpanningTreeFinder}; the tree is always the unique minimum spanning
+ * forest under that order. Edges are looked up by {@code equals}, and parallel copies of an
+ * edge that is already present are ignored.
+ */
+public class DynamicMinimumSpanningTree<V, E extends BaseEdge<V, E>> {
+    private static final int NIL = 0;
+    private static final int NO_EDGE = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Vertices and edges, by dense id. Deleted edges leave a null behind.
+    private final Map<V, Integer> vertexIds;
+    private final Map<E, Integer> edgeIds;
+    private final List<E> edges;
+    private int[] vertexNodes;
+    private double[] weights;
+    private int[] edgeFrom;
+    private int[] edgeTo;
+    private int[] edgeNodes;
+
+    private int treeEdgeCount;
+
+    // Per vertex, its incident edges as entries 2 * edge + side (0 for edgeFrom, 1 for edgeTo)
+    private int[][] incidence;
+    private int[] degrees;
+    // Per entry, its index in its vertex's incidence list
+    private int[] incidenceSlots;
+
+    // Lockstep search state for finding replacement edges, one queue per half
+    private final int[][] searchQueues;
+    private final int[] queueSizes;
+    private final int[] queueHeads;
+    private final int[] entryPositions;
+    // A vertex reached from half h of the current search is marked mark + h
+    private int[] marks;
+    private int mark;
+
+    // Link-cut tree nodes; node 0 is the NIL sentinel
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private boolean[] flipped;
+    private int[] nodeEdges;
+    private int[] heaviest;
+    private int nodeCount;
+    private int[] freeNodes;
+    private int freeNodeCount;
+    private int[] splayPath;
+
+    /**
+     * The edges that entered and left the tree during one update. An edge whose weight
+     * changed but that stayed in the tree is not reported.
+     */
+    public static final class Changes<E> {
+        private final List<E> entered;
+        private final List<E> left;
+
+        Changes(List<E> entered, List<E> left) {
+            this.entered = entered;
+            this.left = left;
+        }
+
+        public List<E> entered() {
+            return entered;
+        }
+
+        public List<E> left() {
+            return left;
+        }
+
+        public boolean isEmpty() {
+            return entered.isEmpty() && left.isEmpty();
+        }
+    }
+
+    /**
+     * Builds the structure from a graph and a minimum spanning tree previously computed for
+     * it. The tree is only used as a starting point: if it is not minimal under the order
+     * described above, it is corrected.
+     */
+    public DynamicMinimumSpanningTree(KruskalGraph<V, E> graph, MinimumSpanningTree<V, E> mst) {
+        this.vertexIds = new HashMap<>();
+        this.edgeIds = new HashMap<>();
+        this.edges = new ArrayList<>();
+        this.vertexNodes = new int[DEFAULT_CAPACITY];
+        this.weights = new double[DEFAULT_CAPACITY];
+        this.edgeFrom = new int[DEFAULT_CAPACITY];
+        this.edgeTo = new int[DEFAULT_CAPACITY];
+        this.edgeNodes = new int[DEFAULT_CAPACITY];
+        this.treeEdgeCount = 0;
+        this.incidence = new int[DEFAULT_CAPACITY][];
+        this.degrees = new int[DEFAULT_CAPACITY];
+        this.incidenceSlots = new int[2 * DEFAULT_CAPACITY];
+        this.searchQueues = new int[][] {new int[DEFAULT_CAPACITY], new int[DEFAULT_CAPACITY]};
+        this.queueSizes = new int[2];
+        this.queueHeads = new int[2];
+        this.entryPositions = new int[2];
+        this.marks = new int[DEFAULT_CAPACITY];
+        this.mark = 0;
+        this.left = new int[DEFAULT_CAPACITY];
+        this.right = new int[DEFAULT_CAPACITY];
+        this.parent = new int[DEFAULT_CAPACITY];
+        this.flipped = new boolean[DEFAULT_CAPACITY];
+        this.nodeEdges = new int[DEFAULT_CAPACITY];
+        this.heaviest = new int[DEFAULT_CAPACITY];
+        this.nodeEdges[NIL] = NO_EDGE;
+        this.heaviest[NIL] = NO_EDGE;
+        this.nodeCount = 1;
+        this.freeNodes = new int[DEFAULT_CAPACITY];
+        this.freeNodeCount = 0;
+        this.splayPath = new int[DEFAULT_CAPACITY];
+
+        for (V vertex : graph.allVertices()) {
+            vertexIdOf(vertex);
+        }
+        for (E edge : graph.allEdges()) {
+            if (!edgeIds.containsKey(edge)) {
+                addEdge(edge);
+            }
+        }
+        boolean[] placed = new boolean[edges.size()];
+        if (mst.exists()) {
+            for (E edge : mst.edges()) {
+                Integer id = edgeIds.get(edge);
+                if (id != null && !placed[id]
+                    && !connected(vertexNodes[edgeFrom[id]], vertexNodes[edgeTo[id]])) {
+                    linkTreeEdge(id);
+                    placed[id] = true;
+                }
+            }
+        }
+        for (int id = 0; id < placed.length; id++) {
+            if (!placed[id]) {
+                place(id, null);
+            }
+        }
+    }
+
+    /**
+     * Builds the structure from a graph, computing its minimum spanning tree with
+     * {@link KruskalMinimumSpanningTreeFinder}.
+     */
+    public static <G extends KruskalGraph<V, E>, V, E extends BaseEdge<V, E>>
+    DynamicMinimumSpanningTree<V, E> of(G graph) {
+        MinimumSpanningTree<V, E> mst = new KruskalMinimumSpanningTreeFinder<G, V, E>()
+            .findMinimumSpanningTree(graph);
+        return new DynamicMinimumSpanningTree<>(graph, mst);
+    }
+
+    /**
+     * Adds an edge, along with any of its vertices that are new.
+     *
+     * @throws IllegalArgumentException if the edge is already present
+     */
+    public Changes<E> insertEdge(E edge) {
+        if (edgeIds.containsKey(edge)) {
+            throw new IllegalArgumentException("Edge is already in the graph: " + edge);
+        }
+        ChangeLog log = new ChangeLog();
+        place(addEdge(edge), log);
+        return log.toChanges();
+    }
+
+    /**
+     * Removes an edge. Its vertices stay, even if they become isolated.
+     *
+     * @throws IllegalArgumentException if the edge is not present
+     */
+    public Changes<E> deleteEdge(E edge) {
+        int id = requireEdgeId(edge);
+        ChangeLog log = new ChangeLog();
+        unplace(id, log);
+        detach(edgeFrom[id], 2 * id);
+        detach(edgeTo[id], 2 * id + 1);
+        edgeIds.remove(edge);
+        edges.set(id, null);
+        return log.toChanges();
+    }
+
+    /**
+     * Replaces {@code edge} with {@code reweighted}, an edge between the same two vertices
+     * with a different weight. The edge keeps its place in the tie-breaking order.
+     *
+     * @throws IllegalArgumentException if {@code edge} is not present, or the two edges don't
+     *                                  join the same vertices
+     */
+    public Changes<E> updateWeight(E edge, E reweighted) {
+        int id = requireEdgeId(edge);
+        Integer from = vertexIds.get(reweighted.from());
+        Integer to = vertexIds.get(reweighted.to());
+        boolean sameEnds = from != null && to != null
+            && ((from == edgeFrom[id] && to == edgeTo[id]) || (from == edgeTo[id] && to == edgeFrom[id]));
+        if (!sameEnds) {
+            throw new IllegalArgumentException("Reweighted edge must join the same vertices.");
+        }
+        Integer existing = edgeIds.get(reweighted);
+        if (existing != null && existing != id) {
+            throw new IllegalArgumentException("Edge is already in the graph: " + reweighted);
+        }
+
+        ChangeLog log = new ChangeLog();
+        double oldWeight = weights[id];
+        double newWeight = reweighted.weight();
+        if (edgeNodes[id] != NIL && newWeight <= oldWeight) {
+            // A lighter tree edge stays in the tree; just refresh the path maxima above it
+            int node = edgeNodes[id];
+            access(node);
+            weights[id] = newWeight;
+            pull(node);
+        } else if (edgeNodes[id] == NIL && newWeight >= oldWeight) {
+            // A heavier non-tree edge stays out of the tree
+            weights[id] = newWeight;
+        } else {
+            unplace(id, log);
+            weights[id] = newWeight;
+            edges.set(id, reweighted);
+            place(id, log);
+        }
+        edgeIds.remove(edge);
+        edgeIds.put(reweighted, id);
+        edges.set(id, reweighted);
+        return log.toChanges();
+    }
+
+    /**
+     * Returns whether the edge is currently in the tree.
+     */
+    public boolean isTreeEdge(E edge) {
+        Integer id = edgeIds.get(edge);
+        return id != null && edgeNodes[id] != NIL;
+    }
+
+    /**
+     * Returns whether the two vertices are currently connected.
+     */
+    public boolean connected(V vertex1, V vertex2) {
+        Integer id1 = vertexIds.get(vertex1);
+        Integer id2 = vertexIds.get(vertex2);
+        return id1 != null && id2 != null && connected(vertexNodes[id1], vertexNodes[id2]);
+    }
+
+    /**
+     * Returns the current tree edges. This walks every edge, so it is O(E).
+     */
+    public List<E> treeEdges() {
+        List<E> treeEdges = new ArrayList<>(treeEdgeCount);
+        for (int id = 0; id < edges.size(); id++) {
+            if (edges.get(id) != null && edgeNodes[id] != NIL) {
+                treeEdges.add(edges.get(id));
+            }
+        }
+        return treeEdges;
+    }
+
+    public int treeEdgeCount() {
+        return treeEdgeCount;
+    }
+
+    /**
+     * Returns the current tree as a {@link MinimumSpanningTree}, which fails if the graph is
+     * currently disconnected.
+     */
+    public MinimumSpanningTree<V, E> toMinimumSpanningTree() {
+        if (!vertexIds.isEmpty() && treeEdgeCount != vertexIds.size() - 1) {
+            return new MinimumSpanningTree.Failure<V, E>();
+        }
+        return new MinimumSpanningTree.Success<V, E>(treeEdges());
+    }
+
+    /*
+    Edge bookkeeping
+     */
+
+    private int compareEdges(int id1, int id2) {
+        int byWeight = Double.compare(weights[id1], weights[id2]);
+        return byWeight != 0 ? byWeight : Integer.compare(id1, id2);
+    }
+
+    private boolean heavier(int id1, int id2) {
+        if (id1 == NO_EDGE) {
+            return false;
+        }
+        return id2 == NO_EDGE || compareEdges(id1, id2) > 0;
+    }
+
+    private int requireEdgeId(E edge) {
+        Integer id = edgeIds.get(edge);
+        if (id == null) {
+            throw new IllegalArgumentException("Edge is not in the graph: " + edge);
+        }
+        return id;
+    }
+
+    private int vertexIdOf(V vertex) {
+        Integer id = vertexIds.get(vertex);
+        if (id == null) {
+            id = vertexIds.size();
+            vertexIds.put(vertex, id);
+            if (id == vertexNodes.length) {
+                vertexNodes = Arrays.copyOf(vertexNodes, 2 * id);
+            }
+            if (id == incidence.length) {
+                incidence = Arrays.copyOf(incidence, 2 * id);
+                degrees = Arrays.copyOf(degrees, 2 * id);
+                marks = Arrays.copyOf(marks, 2 * id);
+            }
+            vertexNodes[id] = allocateNode(NO_EDGE);
+            incidence[id] = new int[4];
+        }
+        return id;
+    }
+
+    private int addEdge(E edge) {
+        int from = vertexIdOf(edge.from());
+        int to = vertexIdOf(edge.to());
+        int id = edges.size();
+        if (id == weights.length) {
+            int newCapacity = 2 * id;
+            weights = Arrays.copyOf(weights, newCapacity);
+            edgeFrom = Arrays.copyOf(edgeFrom, newCapacity);
+            edgeTo = Arrays.copyOf(edgeTo, newCapacity);
+            edgeNodes = Arrays.copyOf(edgeNodes, newCapacity);
+            incidenceSlots = Arrays.copyOf(incidenceSlots, 2 * newCapacity);
+        }
+        edges.add(edge);
+        edgeIds.put(edge, id);
+        weights[id] = edge.weight();
+        edgeFrom[id] = from;
+        edgeTo[id] = to;
+        edgeNodes[id] = NIL;
+        attach(from, 2 * id);
+        attach(to, 2 * id + 1);
+        return id;
+    }
+
+    private void attach(int vertex, int entry) {
+        if (degrees[vertex] == incidence[vertex].length) {
+            incidence[vertex] = Arrays.copyOf(incidence[vertex], 2 * degrees[vertex]);
+        }
+        incidenceSlots[entry] = degrees[vertex];
+        incidence[vertex][degrees[vertex]++] = entry;
+    }
+
+    private void detach(int vertex, int entry) {
+        // Move the last entry into the freed slot
+        int slot = incidenceSlots[entry];
+        int last = incidence[vertex][--degrees[vertex]];
+        incidence[vertex][slot] = last;
+        incidenceSlots[last] = slot;
+    }
+
+    /**
+     * Adds the edge to the tree if it is lighter than the heaviest edge on the cycle it would
+     * close (swapping that edge out), or leaves it out of the tree otherwise.
+     */
+    private void place(int id, ChangeLog log) {
+        int node1 = vertexNodes[edgeFrom[id]];
+        int node2 = vertexNodes[edgeTo[id]];
+        if (node1 == node2) {
+            return;
+        }
+        if (!connected(node1, node2)) {
+            linkTreeEdge(id);
+            record(log, id, true);
+            return;
+        }
+        int max = pathMax(node1, node2);
+        if (heavier(max, id)) {
+            record(log, max, false);
+            cutTreeEdge(max);
+            linkTreeEdge(id);
+            record(log, id, true);
+        }
+    }
+
+    /**
+     * Takes the edge out of the tree, if it is in it, and replaces it with the lightest
+     * non-tree edge that reconnects the two halves, if there is one. The edge stays in the
+     * incidence lists.
+     */
+    private void unplace(int id, ChangeLog log) {
+        if (edgeNodes[id] == NIL) {
+            return;
+        }
+        record(log, id, false);
+        cutTreeEdge(id);
+        int replacement = findReplacement(id);
+        if (replacement != NO_EDGE) {
+            linkTreeEdge(replacement);
+            record(log, replacement, true);
+        }
+    }
+
+    /**
+     * Finds the lightest edge other than {@code cutEdge} that joins the two halves the tree
+     * was just split into, or NO_EDGE. Both halves are explored over tree edges one incidence
+     * entry at a time; the first to run out is the smaller one, and every crossing edge has
+     * exactly one end in it.
+     */
+    private int findReplacement(int cutEdge) {
+        nextMark();
+        startSearch(0, edgeFrom[cutEdge]);
+        startSearch(1, edgeTo[cutEdge]);
+        int smaller;
+        while (true) {
+            if (!searchStep(0)) {
+                smaller = 0;
+                break;
+            }
+            if (!searchStep(1)) {
+                smaller = 1;
+                break;
+            }
+        }
+
+        int best = NO_EDGE;
+        int[] queue = searchQueues[smaller];
+        for (int i = 0; i < queueSizes[smaller]; i++) {
+            int vertex = queue[i];
+            for (int j = 0; j < degrees[vertex]; j++) {
+                int entry = incidence[vertex][j];
+                int candidate = entry >>> 1;
+                if (candidate == cutEdge || edgeNodes[candidate] != NIL) {
+                    continue;
+                }
+                int other = (entry & 1) == 0 ? edgeTo[candidate] : edgeFrom[candidate];
+                if (marks[other] != mark + smaller && (best == NO_EDGE || compareEdges(candidate, best) < 0)) {
+                    best = candidate;
+                }
+            }
+        }
+        return best;
+    }
+
+    private void startSearch(int half, int vertex) {
+        queueSizes[half] = 0;
+        queueHeads[half] = 0;
+        entryPositions[half] = 0;
+        visit(half, vertex);
+    }
+
+    private void visit(int half, int vertex) {
+        marks[vertex] = mark + half;
+        if (queueSizes[half] == searchQueues[half].length) {
+            searchQueues[half] = Arrays.copyOf(searchQueues[half], 2 * queueSizes[half]);
+        }
+        searchQueues[half][queueSizes[half]++] = vertex;
+    }
+
+    /**
+     * Examines one more incidence entry in the given half, following it if it is a tree edge.
+     * Returns false once the half has been fully explored.
+     */
+    private boolean searchStep(int half) {
+        while (queueHeads[half] < queueSizes[half]) {
+            int vertex = searchQueues[half][queueHeads[half]];
+            if (entryPositions[half] == degrees[vertex]) {
+                queueHeads[half]++;
+                entryPositions[half] = 0;
+                continue;
+            }
+            int entry = incidence[vertex][entryPositions[half]++];
+            int edge = entry >>> 1;
+            if (edgeNodes[edge] != NIL) {
+                int other = (entry & 1) == 0 ? edgeTo[edge] : edgeFrom[edge];
+                if (marks[other] != mark + half) {
+                    visit(half, other);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void nextMark() {
+        if (mark >= Integer.MAX_VALUE - 3) {
+            // Wrapped around: old marks could collide with new ones, so wipe them
+            Arrays.fill(marks, 0);
+            mark = 0;
+        }
+        mark += 2;
+    }
+
+    private void linkTreeEdge(int id) {
+        int node = allocateNode(id);
+        edgeNodes[id] = node;
+        link(node, vertexNodes[edgeFrom[id]]);
+        link(vertexNodes[edgeTo[id]], node);
+        treeEdgeCount++;
+    }
+
+    private void cutTreeEdge(int id) {
+        int node = edgeNodes[id];
+        cut(node, vertexNodes[edgeFrom[id]]);
+        cut(node, vertexNodes[edgeTo[id]]);
+        edgeNodes[id] = NIL;
+        freeNode(node);
+        treeEdgeCount--;
+    }
+
+    private void record(ChangeLog log, int id, boolean entered) {
+        if (log != null) {
+            if (entered) {
+                log.entered(id);
+            } else {
+                log.left(id);
+            }
+        }
+    }
+
+    /**
+     * Collects the net effect of an update: an edge that leaves and re-enters the tree (or
+     * the other way around) within the same update cancels out.
+     */
+    private class ChangeLog {
+        private final Map<Integer, E> entered = new LinkedHashMap<>();
+        private final Map<Integer, E> left = new LinkedHashMap<>();
+
+        void entered(int id) {
+            if (left.remove(id) == null) {
+                entered.put(id, edges.get(id));
+            }
+        }
+
+        void left(int id) {
+            if (entered.remove(id) == null) {
+                left.put(id, edges.get(id));
+            }
+        }
+
+        Changes<E> toChanges() {
+            return new Changes<>(Collections.unmodifiableList(new ArrayList<>(entered.values())),
+                Collections.unmodifiableList(new ArrayList<>(left.values())));
+        }
+    }
+
+    /*
+    Link-cut tree
+     */
+
+    private int allocateNode(int edgeId) {
+        int node;
+        if (freeNodeCount > 0) {
+            node = freeNodes[--freeNodeCount];
+        } else {
+            if (nodeCount == left.length) {
+                int newCapacity = 2 * nodeCount;
+                left = Arrays.copyOf(left, newCapacity);
+                right = Arrays.copyOf(right, newCapacity);
+                parent = Arrays.copyOf(parent, newCapacity);
+                flipped = Arrays.copyOf(flipped, newCapacity);
+                nodeEdges = Arrays.copyOf(nodeEdges, newCapacity);
+                heaviest = Arrays.copyOf(heaviest, newCapacity);
+            }
+            node = nodeCount++;
+        }
+        left[node] = NIL;
+        right[node] = NIL;
+        parent[node] = NIL;
+        flipped[node] = false;
+        nodeEdges[node] = edgeId;
+        heaviest[node] = edgeId;
+        return node;
+    }
+
+    private void freeNode(int node) {
+        if (freeNodeCount == freeNodes.length) {
+            freeNodes = Arrays.copyOf(freeNodes, 2 * freeNodeCount);
+        }
+        freeNodes[freeNodeCount++] = node;
+    }
+
+    private boolean isSplayRoot(int node) {
+        int p = parent[node];
+        return p == NIL || (left[p] != node && right[p] != node);
+    }
+
+    private void pull(int node) {
+        int max = nodeEdges[node];
+        if (heavier(heaviest[left[node]], max)) {
+            max = heaviest[left[node]];
+        }
+        if (heavier(heaviest[right[node]], max)) {
+            max = heaviest[right[node]];
+        }
+        heaviest[node] = max;
+    }
+
+    private void push(int node) {
+        if (flipped[node]) {
+            int temp = left[node];
+            left[node] = right[node];
+            right[node] = temp;
+            if (left[node] != NIL) {
+                flipped[left[node]] ^= true;
+            }
+            if (right[node] != NIL) {
+                flipped[right[node]] ^= true;
+            }
+            flipped[node] = false;
+        }
+    }
+
+    private void rotate(int node) {
+        int p = parent[node];
+        int grandparent = parent[p];
+        if (!isSplayRoot(p)) {
+            if (left[grandparent] == p) {
+                left[grandparent] = node;
+            } else {
+                right[grandparent] = node;
+            }
+        }
+        parent[node] = grandparent;
+        if (left[p] == node) {
+            left[p] = right[node];
+            if (right[node] != NIL) {
+                parent[right[node]] = p;
+            }
+            right[node] = p;
+        } else {
+            right[p] = left[node];
+            if (left[node] != NIL) {
+                parent[left[node]] = p;
+            }
+            left[node] = p;
+        }
+        parent[p] = node;
+        pull(p);
+        pull(node);
+    }
+
+    private void splay(int node) {
+        // Push pending flips down from the splay root before rotating
+        int depth = 0;
+        for (int at = node; ; at = parent[at]) {
+            if (depth == splayPath.length) {
+                splayPath = Arrays.copyOf(splayPath, 2 * depth);
+            }
+            splayPath[depth++] = at;
+            if (isSplayRoot(at)) {
+                break;
+            }
+        }
+        while (depth > 0) {
+            push(splayPath[--depth]);
+        }
+        while (!isSplayRoot(node)) {
+            int p = parent[node];
+            if (!isSplayRoot(p)) {
+                int grandparent = parent[p];
+                boolean zigZig = (left[grandparent] == p) == (left[p] == node);
+                rotate(zigZig ? p : node);
+            }
+            rotate(node);
+        }
+    }
+
+    private void access(int node) {
+        int last = NIL;
+        for (int at = node; at != NIL; at = parent[at]) {
+            splay(at);
+            right[at] = last;
+            pull(at);
+            last = at;
+        }
+        splay(node);
+    }
+
+    private void makeRoot(int node) {
+        access(node);
+        flipped[node] ^= true;
+    }
+
+    private int findRoot(int node) {
+        access(node);
+        push(node);
+        while (left[node] != NIL) {
+            node = left[node];
+            push(node);
+        }
+        splay(node);
+        return node;
+    }
+
+    private boolean connected(int node1, int node2) {
+        return node1 == node2 || findRoot(node1) == findRoot(node2);
+    }
+
+    private void link(int child, int newParent) {
+        makeRoot(child);
+        parent[child] = newParent;
+    }
+
+    private void cut(int node1, int node2) {
+        // After this, node2's splay tree is the path node1 - node2, with node1 on its left
+        makeRoot(node1);
+        access(node2);
+        left[node2] = NIL;
+        parent[node1] = NIL;
+        pull(node2);
+    }
+
+    private int pathMax(int node1, int node2) {
+        makeRoot(node1);
+        access(node2);
+        return heaviest[node2];
+    }
+}
@@ -0,0 +1,209 @@
+package mazes.logic.carvers;
+
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Carves out a maze on a rectangular grid one row at a time, using Eller's algorithm.
+ *
+ * Only the set membership of the current row is kept in memory, so {@link #carve} runs in
+ * O(width) space no matter how tall the maze is, and each removed wall is handed to the
+ * caller as soon as it is chosen. The result is a perfect maze, like {@link KruskalMazeCarver}'s.
+ */
+public class EllerMazeCarver extends MazeCarver {
+    private final Random rand;
+
+    /**
+     * The side of a cell that a removed wall belongs to.
+     */
+    public enum Side {
+        EAST, SOUTH
+    }
+
+    /**
+     * Receives walls as they are removed. Cells are addressed by column {@code x} and row
+     * {@code y}, counting from the top-left corner.
+     */
+    @FunctionalInterface
+    public interface WallSink {
+        void removeWall(int x, int y, Side side);
+    }
+
+    public EllerMazeCarver() {
+        this.rand = new Random();
+    }
+
+    public EllerMazeCarver(long seed) {
+        this.rand = new Random(seed);
+    }
+
+    /**
+     * Carves a {@code width} by {@code height} grid maze, streaming removed walls to
+     * {@code sink} row by row.
+     */
+    public void carve(int width, int height, WallSink sink) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Maze dimensions must be positive.");
+        }
+        // Labels of the current row's sets; always compacted into [0, width) between rows
+        int[] sets = new int[width];
+        for (int x = 0; x < width; x++) {
+            sets[x] = x;
+        }
+        int[] parents = new int[width];
+        int[] counts = new int[width];
+        int[] picks = new int[width];
+        int[] seen = new int[width];
+        boolean[] hasDown = new boolean[width];
+        boolean[] down = new boolean[width];
+        int[] remap = new int[2 * width];
+
+        for (int y = 0; y < height; y++) {
+            boolean lastRow = y == height - 1;
+
+            // Randomly join neighboring cells in different sets; the last row joins them all
+            for (int label = 0; label < width; label++) {
+                parents[label] = label;
+            }
+            for (int x = 0; x < width - 1; x++) {
+                int set1 = find(parents, sets[x]);
+                int set2 = find(parents, sets[x + 1]);
+                if (set1 != set2 && (lastRow || rand.nextBoolean())) {
+                    parents[set2] = set1;
+                    sink.removeWall(x, y, Side.EAST);
+                }
+            }
+            for (int x = 0; x < width; x++) {
+                sets[x] = find(parents, sets[x]);
+            }
+            if (lastRow) {
+                break;
+            }
+
+            // Randomly carve down, making sure every set gets at least one opening
+            Arrays.fill(counts, 0);
+            Arrays.fill(hasDown, false);
+            Arrays.fill(picks, -1);
+            Arrays.fill(seen, 0);
+            for (int x = 0; x < width; x++) {
+                counts[sets[x]]++;
+                down[x] = rand.nextBoolean();
+                if (down[x]) {
+                    hasDown[sets[x]] = true;
+                }
+            }
+            for (int x = 0; x < width; x++) {
+                int label = sets[x];
+                if (!hasDown[label]) {
+                    if (picks[label] < 0) {
+                        picks[label] = rand.nextInt(counts[label]);
+                    }
+                    if (seen[label]++ == picks[label]) {
+                        down[x] = true;
+                    }
+                }
+            }
+            for (int x = 0; x < width; x++) {
+                if (down[x]) {
+                    sink.removeWall(x, y, Side.SOUTH);
+                }
+            }
+
+            // Cells that were not carved into start in new sets of their own
+            Arrays.fill(remap, -1);
+            int nextLabel = 0;
+            for (int x = 0; x < width; x++) {
+                int label = down[x] ? sets[x] : width + x;
+                if (remap[label] < 0) {
+                    remap[label] = nextLabel++;
+                }
+                sets[x] = remap[label];
+            }
+        }
+    }
+
+    private static int find(int[] parents, int label) {
+        while (parents[label] != label) {
+            parents[label] = parents[parents[label]];
+            label = parents[label];
+        }
+        return label;
+    }
+
+    /**
+     * Carves the given walls, which must be the walls between the rooms of a rectangular grid
+     * (rooms laid out in rows and columns, one wall between every pair of neighbors).
+     */
+    @Override
+    protected Set<Wall> chooseWallsToRemove(Set<Wall> walls) {
+        // Recover the grid coordinates of each room from the centers' distinct x and y values
+        TreeSet<Integer> xs = new TreeSet<>();
+        TreeSet<Integer> ys = new TreeSet<>();
+        Set<Room> rooms = new HashSet<>();
+        for (Wall wall : walls) {
+            for (Room room : List.of(wall.getRoom1(), wall.getRoom2())) {
+                if (rooms.add(room)) {
+                    xs.add(room.getCenter().x);
+                    ys.add(room.getCenter().y);
+                }
+            }
+        }
+        int width = xs.size();
+        int height = ys.size();
+        if (rooms.isEmpty()) {
+            return new HashSet<>();
+        }
+        if ((long) width * height != rooms.size()) {
+            throw new IllegalArgumentException("Rooms are not laid out in a rectangular grid.");
+        }
+        Map<Integer, Integer> columns = new HashMap<>();
+        for (int x : xs) {
+            columns.put(x, columns.size());
+        }
+        Map<Integer, Integer> rows = new HashMap<>();
+        for (int y : ys) {
+            rows.put(y, rows.size());
+        }
+
+        // Index each wall by (cell, side), where the cell is the wall's west or north room
+        Map<Long, Wall> gridWalls = new HashMap<>();
+        for (Wall wall : walls) {
+            int x1 = columns.get(wall.getRoom1().getCenter().x);
+            int y1 = rows.get(wall.getRoom1().getCenter().y);
+            int x2 = columns.get(wall.getRoom2().getCenter().x);
+            int y2 = rows.get(wall.getRoom2().getCenter().y);
+            Side side;
+            if (y1 == y2 && Math.abs(x1 - x2) == 1) {
+                side = Side.EAST;
+            } else if (x1 == x2 && Math.abs(y1 - y2) == 1) {
+                side = Side.SOUTH;
+            } else {
+                throw new IllegalArgumentException("Wall does not separate grid neighbors: " + wall);
+            }
+            gridWalls.put(wallKey(Math.min(x1, x2), Math.min(y1, y2), side, width), wall);
+        }
+
+        List<Wall> wallsToRemove = new ArrayList<>();
+        carve(width, height, (x, y, side) -> {
+            Wall wall = gridWalls.get(wallKey(x, y, side, width));
+            if (wall == null) {
+                throw new IllegalArgumentException("Missing wall at (" + x + ", " + y + ") " + side);
+            }
+            wallsToRemove.add(wall);
+        });
+        return new HashSet<>(wallsToRemove);
+    }
+
+    private static long wallKey(int x, int y, Side side, int width) {
+        return ((long) y * width + x) * 2 + side.ordinal();
+    }
+}
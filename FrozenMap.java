@@ -0,0 +1,355 @@
+package maps;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable map built once from another map, whose lookups take a single probe into flat
+ * arrays.
+ *
+ * Keys are placed with a minimal perfect hash over their hash codes, built with the
+ * compress-hash-displace (CHD) scheme: hash codes are first split into small buckets, and
+ * each bucket, largest first, is given the first displacement that sends all of its hash
+ * codes to free slots. Buckets holding a single hash code are placed last and simply store the
+ * free slot they were given. A lookup hashes the key to its bucket, reads the bucket's
+ * displacement, computes the one slot the key can be in, and compares it. There are exactly
+ * as many slots as distinct hash codes, plus one displacement per two of them.
+ *
+ * Keys whose hash codes are equal can never be separated by hashing, so they share a slot and
+ * are kept in a small overflow array there, which lookups scan.
+ *
+ * Every field is final and nothing is written after construction, so a frozen map can be
+ * shared freely between threads. Mutating methods throw {@code UnsupportedOperationException}.
+ * Keys may not be null.
+ *
+ * @see AbstractIterableMap
+ */
+public final class FrozenMap<K, V> extends AbstractIterableMap<K, V> {
+    // Average number of distinct hash codes per bucket
+    private static final int HASHES_PER_BUCKET = 2;
+    // Displacements tried for one bucket before starting over with more buckets
+    private static final int MAX_DISPLACEMENT = 1 << 20;
+    private static final Object ABSENT = new Object();
+
+    /**
+     * The keys and values sharing one hash code.
+     */
+    private static final class Overflow {
+        final Object[] keys;
+        final Object[] values;
+
+        Overflow(Object[] keys, Object[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+    }
+
+    // Per bucket: a displacement if >= 0, otherwise -(slot + 1) for a single-hash bucket
+    private final int[] displacements;
+    private final int[] hashes;
+    // Each slot holds a key, or an Overflow if several keys share the slot's hash code
+    private final Object[] keys;
+    private final Object[] values;
+    private final int size;
+
+    private FrozenMap(int[] displacements, int[] hashes, Object[] keys, Object[] values, int size) {
+        this.displacements = displacements;
+        this.hashes = hashes;
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Returns an immutable copy of the given map. Later changes to the map are not reflected.
+     *
+     * @throws IllegalArgumentException if the map contains a null key
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> FrozenMap<K, V> freeze(Map<? extends K, ? extends V> map) {
+        if (map instanceof FrozenMap) {
+            return (FrozenMap<K, V>) map;
+        }
+        int n = map.size();
+        Object[] entryKeys = new Object[n];
+        Object[] entryValues = new Object[n];
+        // Sort entries by hash code, packing the entry index into the low half
+        long[] order = new long[n];
+        int count = 0;
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            if (entry.getKey() == null) {
+                throw new IllegalArgumentException("Keys must not be null.");
+            }
+            entryKeys[count] = entry.getKey();
+            entryValues[count] = entry.getValue();
+            order[count] = ((long) entry.getKey().hashCode() << 32) | count;
+            count++;
+        }
+        Arrays.sort(order);
+
+        // Group runs of equal hash codes; each group gets one slot
+        int[] groupHashes = new int[n];
+        int[] groupStarts = new int[n + 1];
+        int groupCount = 0;
+        for (int i = 0; i < n; i++) {
+            int hash = (int) (order[i] >> 32);
+            if (groupCount == 0 || groupHashes[groupCount - 1] != hash) {
+                groupHashes[groupCount] = hash;
+                groupStarts[groupCount] = i;
+                groupCount++;
+            }
+        }
+        groupStarts[groupCount] = n;
+
+        int[] slotOfGroup = new int[groupCount];
+        int bucketCount = Math.max(1, (groupCount + HASHES_PER_BUCKET - 1) / HASHES_PER_BUCKET);
+        int[] displacements;
+        while ((displacements = place(groupHashes, groupCount, bucketCount, slotOfGroup)) == null) {
+            bucketCount *= 2;
+        }
+
+        int[] hashes = new int[groupCount];
+        Object[] keys = new Object[groupCount];
+        Object[] values = new Object[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            int slot = slotOfGroup[g];
+            int from = groupStarts[g];
+            int to = groupStarts[g + 1];
+            hashes[slot] = groupHashes[g];
+            if (to - from == 1) {
+                int entry = (int) order[from];
+                keys[slot] = entryKeys[entry];
+                values[slot] = entryValues[entry];
+            } else {
+                Object[] overflowKeys = new Object[to - from];
+                Object[] overflowValues = new Object[to - from];
+                for (int i = from; i < to; i++) {
+                    int entry = (int) order[i];
+                    overflowKeys[i - from] = entryKeys[entry];
+                    overflowValues[i - from] = entryValues[entry];
+                }
+                keys[slot] = new Overflow(overflowKeys, overflowValues);
+            }
+        }
+        return new FrozenMap<>(displacements, hashes, keys, values, n);
+    }
+
+    /**
+     * Assigns each of the distinct hash codes its own slot, filling {@code slotOfGroup}.
+     * Returns the bucket displacements, or null if some bucket could not be placed.
+     */
+    private static int[] place(int[] groupHashes, int groupCount, int bucketCount, int[] slotOfGroup) {
+        // Counting sort the hash codes by bucket
+        int[] bucketStarts = new int[bucketCount + 1];
+        for (int g = 0; g < groupCount; g++) {
+            bucketStarts[bucketFor(groupHashes[g], bucketCount) + 1]++;
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            bucketStarts[b + 1] += bucketStarts[b];
+        }
+        int[] members = new int[groupCount];
+        int[] fill = Arrays.copyOf(bucketStarts, bucketCount);
+        for (int g = 0; g < groupCount; g++) {
+            members[fill[bucketFor(groupHashes[g], bucketCount)]++] = g;
+        }
+
+        // Largest buckets first, while there is still plenty of room
+        long[] bySize = new long[bucketCount];
+        int largest = 0;
+        for (int b = 0; b < bucketCount; b++) {
+            int bucketSize = bucketStarts[b + 1] - bucketStarts[b];
+            bySize[b] = ((long) -bucketSize << 32) | b;
+            largest = Math.max(largest, bucketSize);
+        }
+        Arrays.sort(bySize);
+
+        int[] displacements = new int[bucketCount];
+        boolean[] taken = new boolean[groupCount];
+        int[] candidate = new int[largest];
+        int next = 0;
+        for (; next < bucketCount; next++) {
+            int b = (int) bySize[next];
+            int from = bucketStarts[b];
+            int bucketSize = bucketStarts[b + 1] - from;
+            if (bucketSize < 2) {
+                break;
+            }
+            int d = 0;
+            while (!fits(groupHashes, members, from, bucketSize, d, taken, candidate)) {
+                if (++d == MAX_DISPLACEMENT) {
+                    return null;
+                }
+            }
+            displacements[b] = d;
+            for (int i = 0; i < bucketSize; i++) {
+                taken[candidate[i]] = true;
+                slotOfGroup[members[from + i]] = candidate[i];
+            }
+        }
+
+        // Single-hash buckets take the remaining slots directly
+        int freeSlot = 0;
+        for (; next < bucketCount; next++) {
+            int b = (int) bySize[next];
+            if (bucketStarts[b + 1] == bucketStarts[b]) {
+                // Empty buckets keep displacement 0; lookups there miss on the hash check
+                break;
+            }
+            while (taken[freeSlot]) {
+                freeSlot++;
+            }
+            taken[freeSlot] = true;
+            slotOfGroup[members[bucketStarts[b]]] = freeSlot;
+            displacements[b] = -(freeSlot + 1);
+        }
+        return displacements;
+    }
+
+    /**
+     * Computes the slots of a bucket's hash codes under displacement {@code d} into
+     * {@code candidate}, and returns whether they are all free and distinct.
+     */
+    private static boolean fits(int[] groupHashes, int[] members, int from, int bucketSize, int d,
+                                boolean[] taken, int[] candidate) {
+        int slotCount = taken.length;
+        for (int i = 0; i < bucketSize; i++) {
+            int slot = slotFor(groupHashes[members[from + i]], d, slotCount);
+            if (taken[slot]) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (candidate[j] == slot) {
+                    return false;
+                }
+            }
+            candidate[i] = slot;
+        }
+        return true;
+    }
+
+    /**
+     * The splitmix64 finalizer: a bijection on longs that scrambles every input bit into every
+     * output bit.
+     */
+    private static long scramble(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Maps a uniformly distributed int onto [0, n) with a multiply instead of a division.
+     */
+    private static int reduce(int x, int n) {
+        return (int) (((x & 0xFFFFFFFFL) * n) >>> 32);
+    }
+
+    private static int bucketFor(int hash, int bucketCount) {
+        return reduce((int) (scramble(hash) >>> 32), bucketCount);
+    }
+
+    private static int slotFor(int hash, int displacement, int slotCount) {
+        return reduce((int) scramble(hash ^ (displacement + 1L) * 0x9E3779B97F4A7C15L), slotCount);
+    }
+
+    /**
+     * Returns the value for the key, or ABSENT if the key is not in the map.
+     */
+    private Object lookup(Object key) {
+        if (key == null || size == 0) {
+            return ABSENT;
+        }
+        int hash = key.hashCode();
+        int displacement = displacements[bucketFor(hash, displacements.length)];
+        int slot = displacement < 0 ? -displacement - 1 : slotFor(hash, displacement, hashes.length);
+        if (hashes[slot] != hash) {
+            return ABSENT;
+        }
+        Object stored = keys[slot];
+        if (stored instanceof Overflow) {
+            Overflow overflow = (Overflow) stored;
+            for (int i = 0; i < overflow.keys.length; i++) {
+                if (overflow.keys[i].equals(key)) {
+                    return overflow.values[i];
+                }
+            }
+            return ABSENT;
+        }
+        return stored.equals(key) ? values[slot] : ABSENT;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        Object value = lookup(key);
+        return value == ABSENT ? null : (V) value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return lookup(key) != ABSENT;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException("Frozen maps cannot be modified.");
+    }
+
+    @Override
+    public V remove(Object key) {
+        throw new UnsupportedOperationException("Frozen maps cannot be modified.");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Frozen maps cannot be modified.");
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new FrozenMapIterator();
+    }
+
+    private class FrozenMapIterator implements Iterator<Map.Entry<K, V>> {
+        private int slot;
+        // Position within the current slot's overflow, if it has one
+        private int overflowIndex;
+
+        FrozenMapIterator() {
+            this.slot = 0;
+            this.overflowIndex = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < keys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object stored = keys[slot];
+            if (stored instanceof Overflow) {
+                Overflow overflow = (Overflow) stored;
+                int i = overflowIndex++;
+                if (overflowIndex == overflow.keys.length) {
+                    overflowIndex = 0;
+                    slot++;
+                }
+                return new SimpleImmutableEntry<>((K) overflow.keys[i], (V) overflow.values[i]);
+            }
+            int i = slot++;
+            return new SimpleImmutableEntry<>((K) stored, (V) values[i]);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package benchmarks;
+
+import maps.AbstractIterableMap;
+import maps.FrozenMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares lookups in a mutable map against the same entries frozen into a FrozenMap, and
+ * measures what freezing costs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrozenMapBenchmark {
+    @Param({"ChainedHashMap", "ChainedHashMap+frozen"})
+    public String implementation;
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private AbstractIterableMap<Integer, Integer> source;
+    private Map<Integer, Integer> map;
+    private Integer[] keys;
+    private Integer[] absentKeys;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random rand = new Random(373);
+        source = MapBenchmark.createMap("ChainedHashMap");
+        keys = new Integer[size];
+        absentKeys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = rand.nextInt() & Integer.MAX_VALUE;
+            absentKeys[i] = -1 - i;
+            source.put(keys[i], i);
+        }
+        map = implementation.endsWith("+frozen") ? FrozenMap.freeze(source) : source;
+        cursor = 0;
+    }
+
+    private int nextIndex() {
+        cursor = cursor + 1 == size ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    @Benchmark
+    public Integer getPresent() {
+        return map.get(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean containsAbsent() {
+        return map.containsKey(absentKeys[nextIndex()]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public FrozenMap<Integer, Integer> freeze() {
+        return FrozenMap.freeze(source);
+    }
+}
@@ -0,0 +1,77 @@
+package benchmarks;
+
+import graphs.EdgeWithData;
+import graphs.minspantrees.BoruvkaMinimumSpanningTreeFinder;
+import graphs.minspantrees.KruskalMinimumSpanningTreeFinder;
+import graphs.minspantrees.MinimumSpanningTree;
+import graphs.shortestpaths.DijkstraShortestPathFinder;
+import graphs.shortestpaths.ShortestPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end runs of the MST and shortest path finders on seeded grid mazes.
+ *
+ * {@code kruskal} and {@code boruvka} carve a maze out of the full grid; {@code dijkstra} solves the carved
+ * maze from the top-left corner to the bottom-right one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class GraphAlgorithmsBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int rooms;
+
+    @Param({"373"})
+    public long seed;
+
+    @Param({"INDEXED_HEAP", "RADIX_HEAP", "BUCKET_QUEUE"})
+    public DijkstraShortestPathFinder.QueueType queueType;
+
+    private GridGraph grid;
+    private GridGraph maze;
+
+    @Setup
+    public void setUp() {
+        grid = GridGraph.withRooms(rooms, seed);
+        MinimumSpanningTree<Integer, EdgeWithData<Integer, Integer>> mst =
+            new KruskalMinimumSpanningTreeFinder<GridGraph, Integer, EdgeWithData<Integer, Integer>>()
+                .findMinimumSpanningTree(grid);
+        maze = grid.withEdges(mst.edges());
+    }
+
+    @Benchmark
+    public MinimumSpanningTree<Integer, EdgeWithData<Integer, Integer>> kruskal() {
+        return new KruskalMinimumSpanningTreeFinder<GridGraph, Integer, EdgeWithData<Integer, Integer>>()
+            .findMinimumSpanningTree(grid);
+    }
+
+    @Benchmark
+    public MinimumSpanningTree<Integer, EdgeWithData<Integer, Integer>> boruvka() {
+        return new BoruvkaMinimumSpanningTreeFinder<GridGraph, Integer, EdgeWithData<Integer, Integer>>()
+            .findMinimumSpanningTree(grid);
+    }
+
+    @Benchmark
+    public ShortestPath<Integer, EdgeWithData<Integer, Integer>> dijkstra() {
+        // Grid weights are in [0, 1), so 64 buckets cover the spread of any edge
+        DijkstraShortestPathFinder<GridGraph, Integer, EdgeWithData<Integer, Integer>> finder =
+            queueType == DijkstraShortestPathFinder.QueueType.BUCKET_QUEUE
+                ? new DijkstraShortestPathFinder<>(1.0 / 64)
+                : new DijkstraShortestPathFinder<>(queueType);
+        return finder.findShortestPath(maze, 0, maze.vertexCount() - 1);
+    }
+}
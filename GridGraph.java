@@ -0,0 +1,105 @@
+package benchmarks;
+
+import graphs.EdgeWithData;
+import graphs.KruskalGraph;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A seeded, undirected grid graph used as benchmark input.
+ *
+ * Vertices are the cell indices {@code y * width + x}; each edge's data is its index in
+ * {@link #allEdges()}. {@link #withEdges(Collection)} turns a subset of those edges, such as a
+ * spanning tree, into a new graph over the same cells; a spanning tree gives a perfect maze.
+ */
+public class GridGraph implements KruskalGraph<Integer, EdgeWithData<Integer, Integer>> {
+    private final int width;
+    private final int height;
+    private final List<EdgeWithData<Integer, Integer>> edges;
+    private final List<List<EdgeWithData<Integer, Integer>>> adjacency;
+
+    private GridGraph(int width, int height, List<EdgeWithData<Integer, Integer>> edges) {
+        this.width = width;
+        this.height = height;
+        this.edges = edges;
+        this.adjacency = new ArrayList<>(width * height);
+        for (int i = 0; i < width * height; i++) {
+            adjacency.add(new ArrayList<>(4));
+        }
+        for (EdgeWithData<Integer, Integer> edge : edges) {
+            adjacency.get(edge.from()).add(edge);
+            adjacency.get(edge.to()).add(
+                new EdgeWithData<>(edge.to(), edge.from(), edge.weight(), edge.data()));
+        }
+    }
+
+    /**
+     * Returns a square-ish grid with about {@code rooms} cells and random edge weights in [0, 1).
+     */
+    public static GridGraph withRooms(int rooms, long seed) {
+        int width = (int) Math.ceil(Math.sqrt(rooms));
+        int height = Math.max(1, rooms / width);
+        Random rand = new Random(seed);
+        List<EdgeWithData<Integer, Integer>> edges = new ArrayList<>(2 * width * height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                if (x + 1 < width) {
+                    edges.add(new EdgeWithData<>(cell, cell + 1, rand.nextDouble(), edges.size()));
+                }
+                if (y + 1 < height) {
+                    edges.add(new EdgeWithData<>(cell, cell + width, rand.nextDouble(), edges.size()));
+                }
+            }
+        }
+        return new GridGraph(width, height, edges);
+    }
+
+    /**
+     * Returns the graph made of just the given edges, over the same cells.
+     */
+    public GridGraph withEdges(Collection<EdgeWithData<Integer, Integer>> treeEdges) {
+        return new GridGraph(width, height, new ArrayList<>(treeEdges));
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int vertexCount() {
+        return width * height;
+    }
+
+    @Override
+    public Collection<EdgeWithData<Integer, Integer>> outgoingEdgesFrom(Integer vertex) {
+        return Collections.unmodifiableList(adjacency.get(vertex));
+    }
+
+    @Override
+    public Collection<Integer> allVertices() {
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                return index;
+            }
+
+            @Override
+            public int size() {
+                return width * height;
+            }
+        };
+    }
+
+    @Override
+    public Collection<EdgeWithData<Integer, Integer>> allEdges() {
+        return Collections.unmodifiableList(edges);
+    }
+}
@@ -0,0 +1,316 @@
+package maps;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A map backed by an AVL tree whose entries are ordered by key hash code, like the tree bins
+ * of {@code java.util.HashMap}.
+ *
+ * Keys with equal hash codes are ordered by {@code compareTo} when they are instances of the
+ * same class {@code C implements Comparable<C>}, so even keys crafted to share one hash code
+ * take O(log n) to find, insert and remove. Keys that still tie (different classes, or not
+ * comparable) are ordered by class name and then by insertion, and a lookup for such a key
+ * has to search both sides of the tie, so only those keys fall back to linear time.
+ *
+ * {@link ChainedHashMap} switches a chain to this type once it grows long, to bound the cost
+ * of operations on overloaded buckets.
+ *
+ * @see AbstractIterableMap
+ * @see ChainedHashMap
+ */
+public class HashTreeMap<K, V> extends AbstractIterableMap<K, V> {
+    private Node<K, V> root;
+    private int size;
+    // Breaks the last ties between keys, so the tree order is total
+    private long insertions;
+
+    private static final class Node<K, V> extends SimpleEntry<K, V> {
+        final int hash;
+        final long sequence;
+        Node<K, V> left;
+        Node<K, V> right;
+        int height;
+
+        Node(K key, V value, int hash, long sequence) {
+            super(key, value);
+            this.hash = hash;
+            this.sequence = sequence;
+            this.height = 1;
+        }
+    }
+
+    /**
+     * Constructs a new, empty HashTreeMap.
+     */
+    public HashTreeMap() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /**
+     * Returns {@code x.getClass()} if it is of the form {@code C implements Comparable<C>},
+     * or null otherwise.
+     */
+    private static Class<?> comparableClassFor(Object x) {
+        if (!(x instanceof Comparable)) {
+            return null;
+        }
+        Class<?> c = x.getClass();
+        if (c == String.class) {
+            return c;
+        }
+        for (Type type : c.getGenericInterfaces()) {
+            if (type instanceof ParameterizedType) {
+                ParameterizedType p = (ParameterizedType) type;
+                Type[] args = p.getActualTypeArguments();
+                if (p.getRawType() == Comparable.class && args.length == 1 && args[0] == c) {
+                    return c;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Compares two keys with equal hash codes by {@code compareTo}, or returns 0 if they
+     * cannot be compared that way.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static int compareComparables(Object a, Object b) {
+        Class<?> c = comparableClassFor(a);
+        if (c == null || b.getClass() != c) {
+            return 0;
+        }
+        return ((Comparable) a).compareTo(b);
+    }
+
+    /**
+     * The order of the tree. Never returns 0 for distinct nodes.
+     */
+    private static int compareNodes(Node<?, ?> a, Node<?, ?> b) {
+        if (a.hash != b.hash) {
+            return a.hash < b.hash ? -1 : 1;
+        }
+        int c = compareComparables(a.getKey(), b.getKey());
+        if (c == 0) {
+            c = a.getKey().getClass().getName().compareTo(b.getKey().getClass().getName());
+        }
+        if (c == 0) {
+            c = Long.compare(a.sequence, b.sequence);
+        }
+        return c;
+    }
+
+    private Node<K, V> find(Node<K, V> node, int hash, Object key) {
+        while (node != null) {
+            if (hash != node.hash) {
+                node = hash < node.hash ? node.left : node.right;
+            } else if (key.equals(node.getKey())) {
+                return node;
+            } else {
+                int c = compareComparables(key, node.getKey());
+                if (c != 0) {
+                    node = c < 0 ? node.left : node.right;
+                } else {
+                    // The key can't be placed relative to this node, so it may be on either side
+                    Node<K, V> found = find(node.left, hash, key);
+                    if (found != null) {
+                        return found;
+                    }
+                    node = node.right;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Node<K, V> find(Object key) {
+        return key == null ? null : find(root, key.hashCode(), key);
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = find(key);
+        return node == null ? null : node.getValue();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        int hash = key.hashCode();
+        Node<K, V> node = find(root, hash, key);
+        if (node != null) {
+            return node.setValue(value);
+        }
+        root = insert(root, new Node<>(key, value, hash, insertions++));
+        size++;
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> node = find(key);
+        if (node == null) {
+            return null;
+        }
+        root = delete(root, node);
+        size--;
+        return node.getValue();
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /*
+    AVL balancing
+     */
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void updateHeight(Node<?, ?> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+    }
+
+    private static <K, V> Node<K, V> rotateLeft(Node<K, V> node) {
+        Node<K, V> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        updateHeight(node);
+        updateHeight(right);
+        return right;
+    }
+
+    private static <K, V> Node<K, V> rotateRight(Node<K, V> node) {
+        Node<K, V> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        updateHeight(node);
+        updateHeight(left);
+        return left;
+    }
+
+    /**
+     * Restores the AVL invariant at a node whose subtrees differ in height by at most 2.
+     */
+    private static <K, V> Node<K, V> balance(Node<K, V> node) {
+        int skew = height(node.left) - height(node.right);
+        if (skew > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (skew < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        updateHeight(node);
+        return node;
+    }
+
+    private static <K, V> Node<K, V> insert(Node<K, V> node, Node<K, V> inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compareNodes(inserted, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        return balance(node);
+    }
+
+    private static <K, V> Node<K, V> delete(Node<K, V> node, Node<K, V> deleted) {
+        if (node == deleted) {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            // Relink the successor in place of the node, so entries keep their identity
+            Node<K, V> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(node.right);
+            successor.left = node.left;
+            return balance(successor);
+        }
+        if (compareNodes(deleted, node) < 0) {
+            node.left = delete(node.left, deleted);
+        } else {
+            node.right = delete(node.right, deleted);
+        }
+        return balance(node);
+    }
+
+    private static <K, V> Node<K, V> deleteMin(Node<K, V> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = deleteMin(node.left);
+        return balance(node);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new HashTreeMapIterator<>(root);
+    }
+
+    private static class HashTreeMapIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        // The nodes whose left subtrees have been visited but which haven't been returned yet
+        private final Deque<Node<K, V>> path;
+
+        HashTreeMapIterator(Node<K, V> root) {
+            this.path = new ArrayDeque<>();
+            pushLeftSpine(root);
+        }
+
+        private void pushLeftSpine(Node<K, V> node) {
+            for (; node != null; node = node.left) {
+                path.push(node);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> node = path.pop();
+            pushLeftSpine(node.right);
+            return node;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package maps;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * An array map that keeps its keys, values and key hash codes in parallel arrays.
+ *
+ * Scans only cover the first {@code size} slots and compare cached hash codes before calling
+ * {@code equals}, and puts don't allocate an entry object, which makes this a cheaper chain
+ * type for {@link ChainedHashMap} than {@link ArrayMap}.
+ *
+ * Iteration hands out a single flyweight entry per iterator, repositioned on every call to
+ * {@code next()}: read it (or call {@code setValue}) before advancing, and copy it if you need
+ * to keep it.
+ *
+ * @see AbstractIterableMap
+ * @see Map
+ */
+public class HashedArrayMap<K, V> extends AbstractIterableMap<K, V> {
+    private static final int DEFAULT_INITIAL_CAPACITY = 10;
+
+    Object[] keys;
+    Object[] values;
+    int[] hashes;
+    private int size;
+
+    /**
+     * Constructs a new HashedArrayMap with default initial capacity.
+     */
+    public HashedArrayMap() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a new HashedArrayMap with the given initial capacity.
+     *
+     * @param initialCapacity the initial capacity of the map. Must be >= 0.
+     */
+    public HashedArrayMap(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Not allowed");
+        }
+        this.keys = new Object[initialCapacity];
+        this.values = new Object[initialCapacity];
+        this.hashes = new int[initialCapacity];
+        this.size = 0;
+    }
+
+    private int indexOf(Object key, int hash) {
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash && keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int index = indexOf(key, key.hashCode());
+        return index < 0 ? null : (V) values[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        int hash = key.hashCode();
+        int index = indexOf(key, hash);
+        if (index >= 0) {
+            V prevValue = (V) values[index];
+            values[index] = value;
+            return prevValue;
+        }
+        if (size == keys.length) {
+            int newCapacity = Math.max(2 * keys.length, 1);
+            keys = Arrays.copyOf(keys, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+            hashes = Arrays.copyOf(hashes, newCapacity);
+        }
+        keys[size] = key;
+        values[size] = value;
+        hashes[size] = hash;
+        size++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int index = indexOf(key, key.hashCode());
+        if (index < 0) {
+            return null;
+        }
+        V prevValue = (V) values[index];
+        size--;
+        keys[index] = keys[size];
+        values[index] = values[size];
+        hashes[index] = hashes[size];
+        keys[size] = null;
+        values[size] = null;
+        return prevValue;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (key == null) {
+            return false;
+        }
+        return indexOf(key, key.hashCode()) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new HashedArrayMapIterator();
+    }
+
+    private class HashedArrayMapIterator implements Iterator<Map.Entry<K, V>>, Map.Entry<K, V> {
+        private int next;
+        private int curr;
+
+        HashedArrayMapIterator() {
+            this.next = 0;
+            this.curr = -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            curr = next++;
+            return this;
+        }
+
+        // The iterator doubles as the flyweight entry for the slot last returned by next()
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            return (K) keys[curr];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) values[curr];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V setValue(V value) {
+            V prevValue = (V) values[curr];
+            values[curr] = value;
+            return prevValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            Object value = values[curr];
+            return keys[curr].equals(other.getKey())
+                && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = values[curr];
+            return hashes[curr] ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return keys[curr] + "=" + values[curr];
+        }
+    }
+}
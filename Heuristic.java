@@ -0,0 +1,22 @@
+package graphs.shortestpaths;
+
+/**
+ * An estimate of the remaining distance from a vertex to a goal vertex, used to steer
+ * goal-directed searches.
+ *
+ * To guarantee shortest paths, the estimate must be admissible: it must never exceed the
+ * true shortest-path distance. Heuristics that are also consistent
+ * ({@code estimate(u, goal) <= weight(u, v) + estimate(v, goal)} for every edge)
+ * never need to re-open a vertex once it has been settled.
+ */
+@FunctionalInterface
+public interface Heuristic<V> {
+    double estimate(V vertex, V goal);
+
+    /**
+     * Returns the heuristic that always estimates 0, which turns A* back into Dijkstra.
+     */
+    static <V> Heuristic<V> zero() {
+        return (vertex, goal) -> 0.0;
+    }
+}
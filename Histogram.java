@@ -0,0 +1,103 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A named, thread-safe histogram of non-negative values.
+ *
+ * Values are counted in power-of-two buckets (bucket {@code b} holds values whose bit length
+ * is {@code b}), so recording is a couple of uncontended adds and percentiles are accurate
+ * to within a factor of two.
+ */
+public final class Histogram {
+    private static final int BUCKET_COUNT = 65;
+
+    private final String name;
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    Histogram(String name) {
+        this.name = name;
+        this.buckets = new LongAdder[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        buckets[64 - Long.numberOfLeadingZeros(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count();
+        return n == 0 ? 0.0 : (double) sum() / n;
+    }
+
+    /**
+     * Returns an upper bound on the given percentile: the largest value that falls in the
+     * bucket containing it.
+     *
+     * @param percentile in [0, 100]
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in [0, 100].");
+        }
+        long n = count();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * n);
+        long seen = 0;
+        for (int b = 0; b < BUCKET_COUNT; b++) {
+            seen += buckets[b].sum();
+            if (seen >= rank && seen > 0) {
+                return b == 0 ? 0 : Math.min(max(), b == 64 ? Long.MAX_VALUE : (1L << b) - 1);
+            }
+        }
+        return max();
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return name + "{count=" + count() + ", mean=" + mean() + ", p50=" + percentile(50)
+            + ", p99=" + percentile(99) + ", max=" + max() + "}";
+    }
+}
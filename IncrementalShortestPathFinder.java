@@ -0,0 +1,239 @@
+package graphs.shortestpaths;
+
+import graphs.BaseEdge;
+import graphs.Graph;
+import priorityqueues.ExtrinsicMinPQ;
+import priorityqueues.IndexedArrayHeapMinPQ;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes shortest paths with Lifelong Planning A* (with a zero heuristic), keeping the
+ * search state from one query to the next so that after the graph changes only the affected
+ * vertices are re-expanded.
+ *
+ * The finder remembers one graph and start vertex at a time. The first query from a start
+ * builds the full shortest-paths tree, exactly like Dijkstra's algorithm. After that, callers
+ * change the graph and report each change with {@link #edgeChanged(Object, Object)}; the next
+ * query from the same start repairs the tree, re-expanding only vertices whose distance
+ * actually changed. Querying a different graph or start vertex starts over.
+ *
+ * Each vertex keeps its current distance {@code g} and a one-step lookahead {@code rhs}, the
+ * best distance through any neighbor. Vertices where the two differ are queued, and are
+ * settled in order of {@code min(g, rhs)} until none are left, at which point every distance
+ * matches what a fresh search would find. {@link #getLastTouchedCount()} reports how many
+ * vertices the most recent query expanded.
+ *
+ * Predecessors are found by walking outgoing edges, so the graph must be symmetric, as mazes
+ * are, and edge weights must be positive: with zero-weight edges a repair can settle on a tree
+ * that is not shortest.
+ *
+ * Each vertex remembers the arc to its best neighbor found while computing its lookahead. The
+ * returned tree is a live, read-only view that turns an arc into the matching edge from the
+ * neighbor only when it is read, so updates never scan for it.
+ *
+ * @see UndirectedEdges
+ */
+public class IncrementalShortestPathFinder<G extends Graph<V, E>, V, E extends BaseEdge<V, E>>
+    extends DijkstraShortestPathFinder<G, V, E> {
+
+    private G graph;
+    private V start;
+    private final Map<V, Double> g;
+    private final Map<V, Double> rhs;
+    // Each vertex's arc to its best neighbor, i.e. the reverse of its tree edge
+    private final Map<V, E> arcTo;
+    private final Map<V, E> tree;
+    private ExtrinsicMinPQ<V> pq;
+    private final Set<V> changedVertices;
+    private int lastTouchedCount;
+
+    public IncrementalShortestPathFinder() {
+        this.g = new HashMap<>();
+        this.rhs = new HashMap<>();
+        this.arcTo = new HashMap<>();
+        this.tree = new ReversedArcs();
+        this.changedVertices = new LinkedHashSet<>();
+    }
+
+    /**
+     * Records that the edges between {@code u} and {@code v} were added, removed or
+     * reweighted. Call this after changing the graph; the tree is repaired by the next query.
+     */
+    public void edgeChanged(V u, V v) {
+        if (graph != null) {
+            changedVertices.add(u);
+            changedVertices.add(v);
+        }
+    }
+
+    /**
+     * Forgets the current search state, so the next query builds its tree from scratch.
+     */
+    public void reset() {
+        graph = null;
+        start = null;
+        g.clear();
+        rhs.clear();
+        arcTo.clear();
+        pq = null;
+        changedVertices.clear();
+    }
+
+    /**
+     * Returns how many vertices the most recent query expanded: every reachable vertex for a
+     * fresh tree, and only the affected ones for a repair.
+     */
+    public int getLastTouchedCount() {
+        return lastTouchedCount;
+    }
+
+    @Override
+    protected Map<V, E> constructShortestPathsTree(G graph, V start, V end) {
+        if (graph != this.graph || !start.equals(this.start)) {
+            reset();
+            this.graph = graph;
+            this.start = start;
+            // The queue is not monotone across repairs, so it has to be a general heap
+            this.pq = new IndexedArrayHeapMinPQ<>();
+            rhs.put(start, 0.0);
+            pq.add(start, 0.0);
+        } else {
+            for (V vertex : changedVertices) {
+                updateVertex(vertex);
+            }
+        }
+        changedVertices.clear();
+
+        int touched = 0;
+        while (!pq.isEmpty()) {
+            V current = pq.removeMin();
+            double currentG = gOf(current);
+            double currentRhs = rhsOf(current);
+            if (currentG == currentRhs) {
+                // Became consistent again after it was queued
+                continue;
+            }
+            touched++;
+            if (currentG > currentRhs) {
+                // Overconsistent: its distance went down, so settle it
+                g.put(current, currentRhs);
+            } else {
+                // Underconsistent: its distance went up; reset it and let neighbors fix it
+                g.remove(current);
+                updateVertex(current);
+            }
+            for (E edge : graph.outgoingEdgesFrom(current)) {
+                updateVertex(edge.to());
+            }
+        }
+
+        lastTouchedCount = touched;
+        lastSettledCount = touched;
+        return tree;
+    }
+
+    /**
+     * Recomputes the vertex's lookahead from its neighbors, and queues it if it no longer
+     * matches the vertex's distance.
+     */
+    private void updateVertex(V vertex) {
+        if (!vertex.equals(start)) {
+            double best = Double.POSITIVE_INFINITY;
+            E bestArc = null;
+            for (E edge : graph.outgoingEdgesFrom(vertex)) {
+                // In a symmetric graph, vertex -> neighbor weighs the same as neighbor -> vertex
+                double dist = gOf(edge.to()) + edge.weight();
+                if (dist < best) {
+                    best = dist;
+                    bestArc = edge;
+                }
+            }
+            if (bestArc == null) {
+                rhs.remove(vertex);
+                arcTo.remove(vertex);
+            } else {
+                rhs.put(vertex, best);
+                // Always store the arc just scanned: a reweighted edge may be a new object
+                arcTo.put(vertex, bestArc);
+            }
+        }
+
+        double vertexG = gOf(vertex);
+        double vertexRhs = rhsOf(vertex);
+        if (vertexG != vertexRhs) {
+            double key = Math.min(vertexG, vertexRhs);
+            if (pq.contains(vertex)) {
+                pq.changePriority(vertex, key);
+            } else {
+                pq.add(vertex, key);
+            }
+        }
+        // Consistent vertices still in the queue are skipped when they come up
+    }
+
+    /**
+     * The shortest-paths tree as seen by callers: each vertex maps to the reverse twin of its
+     * stored arc, which has the same weight, so the tree always agrees with {@code rhs}.
+     */
+    private class ReversedArcs extends AbstractMap<V, E> {
+        @Override
+        public E get(Object vertex) {
+            E arc = arcTo.get(vertex);
+            return arc == null ? null : UndirectedEdges.reverseOf(graph, arc);
+        }
+
+        @Override
+        public boolean containsKey(Object vertex) {
+            return arcTo.containsKey(vertex);
+        }
+
+        @Override
+        public int size() {
+            return arcTo.size();
+        }
+
+        @Override
+        public Set<Map.Entry<V, E>> entrySet() {
+            return new AbstractSet<Map.Entry<V, E>>() {
+                @Override
+                public Iterator<Map.Entry<V, E>> iterator() {
+                    Iterator<Map.Entry<V, E>> arcs = arcTo.entrySet().iterator();
+                    return new Iterator<Map.Entry<V, E>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return arcs.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<V, E> next() {
+                            Map.Entry<V, E> entry = arcs.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(),
+                                UndirectedEdges.reverseOf(graph, entry.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return arcTo.size();
+                }
+            };
+        }
+    }
+
+    private double gOf(V vertex) {
+        Double dist = g.get(vertex);
+        return dist == null ? Double.POSITIVE_INFINITY : dist;
+    }
+
+    private double rhsOf(V vertex) {
+        Double dist = rhs.get(vertex);
+        return dist == null ? Double.POSITIVE_INFINITY : dist;
+    }
+}
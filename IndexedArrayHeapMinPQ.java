@@ -0,0 +1,291 @@
+package priorityqueues;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+import maps.OpenAddressingHashMap;
+import metrics.Metrics;
+
+/**
+ * A d-ary indexed heap that keeps its priorities, items and positions in primitive arrays.
+ *
+ * Every item is given a dense integer id. If the caller can supply one (for example, the
+ * index of a vertex in a frozen graph) it is used directly; otherwise ids are handed out by
+ * a hash index the first time an item is added, and recycled when it is removed. Either way,
+ * percolating only ever touches the arrays, so swaps never hash or box anything.
+ *
+ * @see ExtrinsicMinPQ
+ * @see ArrayHeapMinPQ
+ */
+public class IndexedArrayHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
+    private static final int DEFAULT_ARITY = 4;
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final int NOT_IN_HEAP = -1;
+
+    private final int arity;
+    private final ToIntFunction<? super T> denseIds;
+
+    // heap slot -> priority / item / id
+    private double[] priorities;
+    private Object[] items;
+    private int[] ids;
+    // id -> heap slot, or NOT_IN_HEAP
+    private int[] positions;
+    private int heapSize;
+
+    // Only used when no dense id function is given
+    private final OpenAddressingHashMap<T, Integer> itemIds;
+    private int[] freeIds;
+    private int freeIdCount;
+    private int nextId;
+
+    /**
+     * Constructs a new 4-ary heap that assigns ids to items through a hash index.
+     */
+    public IndexedArrayHeapMinPQ() {
+        this(DEFAULT_ARITY);
+    }
+
+    /**
+     * Constructs a new heap with the given arity that assigns ids to items through a hash index.
+     *
+     * @param arity the number of children per node. Must be >= 2.
+     */
+    public IndexedArrayHeapMinPQ(int arity) {
+        this(arity, null, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a new heap whose items already carry dense ids.
+     *
+     * @param arity the number of children per node. Must be >= 2.
+     * @param denseIds maps each item to a non-negative id, distinct for distinct items.
+     *                 Ids should be small (e.g. vertex indices), since the position table
+     *                 is sized by the largest id seen.
+     * @param idCapacity the expected number of distinct ids. Must be >= 0.
+     */
+    public IndexedArrayHeapMinPQ(int arity, ToIntFunction<? super T> denseIds, int idCapacity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Arity must be at least 2.");
+        }
+        if (idCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative.");
+        }
+        this.arity = arity;
+        this.denseIds = denseIds;
+        int capacity = Math.max(idCapacity, 1);
+        this.priorities = new double[capacity];
+        this.items = new Object[capacity];
+        this.ids = new int[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, NOT_IN_HEAP);
+        this.heapSize = 0;
+        if (denseIds == null) {
+            this.itemIds = new OpenAddressingHashMap<>();
+            this.freeIds = new int[capacity];
+        } else {
+            this.itemIds = null;
+            this.freeIds = null;
+        }
+    }
+
+    @Override
+    public void add(T item, double priority) {
+        if (contains(item)) {
+            throw new IllegalArgumentException("This item exists!");
+        }
+        int id = assignId(item);
+        if (heapSize == priorities.length) {
+            int newCapacity = priorities.length * 2;
+            priorities = Arrays.copyOf(priorities, newCapacity);
+            items = Arrays.copyOf(items, newCapacity);
+            ids = Arrays.copyOf(ids, newCapacity);
+        }
+        int index = heapSize++;
+        priorities[index] = priority;
+        items[index] = item;
+        ids[index] = id;
+        positions[id] = index;
+        recordSwaps(percolateUp(index));
+    }
+
+    @Override
+    public boolean contains(T item) {
+        int id = lookupId(item);
+        return id >= 0 && id < positions.length && positions[id] != NOT_IN_HEAP;
+    }
+
+    @Override
+    public T peekMin() {
+        if (heapSize == 0) {
+            throw new NoSuchElementException("Priority Queue is empty.");
+        }
+        return itemAt(0);
+    }
+
+    /**
+     * Returns the priority of the minimum item without removing it.
+     *
+     * @throws NoSuchElementException if the PQ is empty
+     */
+    public double peekMinPriority() {
+        if (heapSize == 0) {
+            throw new NoSuchElementException("Priority Queue is empty.");
+        }
+        return priorities[0];
+    }
+
+    @Override
+    public T removeMin() {
+        if (heapSize == 0) {
+            throw new NoSuchElementException("Priority Queue is empty.");
+        }
+        T minItem = itemAt(0);
+        releaseId(ids[0], minItem);
+
+        heapSize--;
+        int swaps = 0;
+        if (heapSize > 0) {
+            moveSlot(heapSize, 0);
+            swaps = percolateDown(0);
+        }
+        recordSwaps(swaps);
+        items[heapSize] = null;
+        return minItem;
+    }
+
+    @Override
+    public void changePriority(T item, double priority) {
+        int id = lookupId(item);
+        if (id < 0 || id >= positions.length || positions[id] == NOT_IN_HEAP) {
+            throw new NoSuchElementException("Item not found in Priority Queue.");
+        }
+        int index = positions[id];
+        double oldPriority = priorities[index];
+        priorities[index] = priority;
+        if (priority < oldPriority) {
+            recordSwaps(percolateUp(index));
+        } else {
+            recordSwaps(percolateDown(index));
+        }
+    }
+
+    @Override
+    public int size() {
+        return heapSize;
+    }
+
+    /*
+    Percolating holds the moving slot aside and shifts parents/children into the hole,
+    so each level costs one array write per field instead of a full swap. Both return the
+    number of levels moved, which the metrics count as swaps.
+     */
+
+    private int percolateUp(int index) {
+        double priority = priorities[index];
+        Object item = items[index];
+        int id = ids[index];
+        int moves = 0;
+        while (index > 0) {
+            int parent = (index - 1) / arity;
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            moveSlot(parent, index);
+            index = parent;
+            moves++;
+        }
+        priorities[index] = priority;
+        items[index] = item;
+        ids[index] = id;
+        positions[id] = index;
+        return moves;
+    }
+
+    private int percolateDown(int index) {
+        double priority = priorities[index];
+        Object item = items[index];
+        int id = ids[index];
+        int moves = 0;
+        while (true) {
+            int firstChild = index * arity + 1;
+            if (firstChild >= heapSize) {
+                break;
+            }
+            int lastChild = Math.min(firstChild + arity, heapSize);
+            int smallest = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (priorities[child] < priorities[smallest]) {
+                    smallest = child;
+                }
+            }
+            if (priority <= priorities[smallest]) {
+                break;
+            }
+            moveSlot(smallest, index);
+            index = smallest;
+            moves++;
+        }
+        priorities[index] = priority;
+        items[index] = item;
+        ids[index] = id;
+        positions[id] = index;
+        return moves;
+    }
+
+    private static void recordSwaps(int swaps) {
+        if (Metrics.ENABLED) {
+            Metrics.HEAP_SWAPS.record(swaps);
+        }
+    }
+
+    private void moveSlot(int from, int to) {
+        priorities[to] = priorities[from];
+        items[to] = items[from];
+        ids[to] = ids[from];
+        positions[ids[to]] = to;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T itemAt(int index) {
+        return (T) items[index];
+    }
+
+    private int lookupId(T item) {
+        if (denseIds != null) {
+            return denseIds.applyAsInt(item);
+        }
+        Integer id = itemIds.get(item);
+        return id == null ? NOT_IN_HEAP : id;
+    }
+
+    private int assignId(T item) {
+        int id;
+        if (denseIds != null) {
+            id = denseIds.applyAsInt(item);
+            if (id < 0) {
+                throw new IllegalArgumentException("Dense ids must not be negative.");
+            }
+        } else {
+            id = freeIdCount > 0 ? freeIds[--freeIdCount] : nextId++;
+            itemIds.put(item, id);
+        }
+        if (id >= positions.length) {
+            int oldLength = positions.length;
+            positions = Arrays.copyOf(positions, Math.max(oldLength * 2, id + 1));
+            Arrays.fill(positions, oldLength, positions.length, NOT_IN_HEAP);
+        }
+        return id;
+    }
+
+    private void releaseId(int id, T item) {
+        positions[id] = NOT_IN_HEAP;
+        if (denseIds == null) {
+            itemIds.remove(item);
+            if (freeIdCount == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+            }
+            freeIds[freeIdCount++] = id;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package mazes.logic.carvers;
+
+import java.util.BitSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Kruskal's algorithm on dense int ids, shared by {@link KruskalMazeCarver}'s fast path and
+ * {@link BatchMazeGenerator}.
+ *
+ * Every wall gets a random key, the walls are radix sorted by key, and an int union-find
+ * removes each wall that joins two separate regions. The caller supplies the keys, drawn in
+ * wall order, so each caller keeps its own random generator and its own seeded output.
+ *
+ * Grid walls are numbered as described by {@link BatchMazeGenerator.Maze}, with rooms counted
+ * from the top-left corner.
+ *
+ * The scratch arrays grow as needed and are reused from maze to maze, so an instance must not
+ * be shared between threads.
+ */
+final class IntKruskal {
+    private long[] keys = new long[0];
+    private int[] rooms1 = new int[0];
+    private int[] rooms2 = new int[0];
+    private int[] parents = new int[0];
+    private int[] sizes = new int[0];
+    private int roomCount;
+    private int wallCount;
+
+    static int gridWallCount(int width, int height) {
+        return (width - 1) * height + width * (height - 1);
+    }
+
+    static int eastWall(int width, int x, int y) {
+        return y * (width - 1) + x;
+    }
+
+    static int southWall(int width, int height, int x, int y) {
+        return (width - 1) * height + y * width + x;
+    }
+
+    /**
+     * Prepares to carve a maze with the given numbers of rooms and walls. Every wall must then
+     * be given its rooms with {@link #setWall}.
+     */
+    void reset(int roomCount, int wallCount) {
+        if (keys.length < wallCount) {
+            keys = new long[wallCount];
+            rooms1 = new int[wallCount];
+            rooms2 = new int[wallCount];
+        }
+        if (parents.length < roomCount) {
+            parents = new int[roomCount];
+            sizes = new int[roomCount];
+        }
+        this.roomCount = roomCount;
+        this.wallCount = wallCount;
+    }
+
+    void setWall(int wall, int room1, int room2) {
+        rooms1[wall] = room1;
+        rooms2[wall] = room2;
+    }
+
+    /**
+     * Prepares to carve a {@code width} by {@code height} grid maze, with the walls numbered
+     * like {@link BatchMazeGenerator.Maze}'s and room {@code (x, y)} numbered
+     * {@code y * width + x}.
+     */
+    void resetGrid(int width, int height) {
+        reset(width * height, gridWallCount(width, height));
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width - 1; x++) {
+                setWall(eastWall(width, x, y), y * width + x, y * width + x + 1);
+            }
+        }
+        for (int y = 0; y < height - 1; y++) {
+            for (int x = 0; x < width; x++) {
+                setWall(southWall(width, height, x, y), y * width + x, (y + 1) * width + x);
+            }
+        }
+    }
+
+    /**
+     * Returns the numbers of the walls to remove, asking {@code keys} for one non-negative key
+     * per wall, in wall order. Walls with smaller keys are removed first; ties go to the
+     * lower-numbered wall.
+     *
+     * @throws IllegalStateException if the walls don't connect all the rooms
+     */
+    BitSet carve(LongSupplier keys) {
+        for (int wall = 0; wall < wallCount; wall++) {
+            this.keys[wall] = keys.getAsLong();
+        }
+        for (int room = 0; room < roomCount; room++) {
+            parents[room] = room;
+            sizes[room] = 1;
+        }
+
+        BitSet removed = new BitSet(wallCount);
+        int[] order = RadixSort.sortedOrder(this.keys, wallCount);
+        int carved = 0;
+        for (int i = 0; i < wallCount && carved < roomCount - 1; i++) {
+            int wall = order[i];
+            if (union(rooms1[wall], rooms2[wall])) {
+                removed.set(wall);
+                carved++;
+            }
+        }
+        if (carved < roomCount - 1) {
+            throw new IllegalStateException("Maze graph is not connected, no MST exists!");
+        }
+        return removed;
+    }
+
+    private int find(int room) {
+        while (parents[room] != room) {
+            parents[room] = parents[parents[room]];
+            room = parents[room];
+        }
+        return room;
+    }
+
+    private boolean union(int room1, int room2) {
+        int root1 = find(room1);
+        int root2 = find(room2);
+        if (root1 == root2) {
+            return false;
+        }
+        if (sizes[root1] < sizes[root2]) {
+            int temp = root1;
+            root1 = root2;
+            root2 = temp;
+        }
+        parents[root2] = root1;
+        sizes[root1] += sizes[root2];
+        return true;
+    }
+}
@@ -0,0 +1,151 @@
+package priorityqueues;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An indexed 4-ary min-heap over the ints {@code [0, capacity)}, keyed by doubles.
+ *
+ * This is the primitive counterpart of {@link IndexedArrayHeapMinPQ} for code that already
+ * works in terms of dense ids (for example over a {@code graphs.CompactGraph}). It never
+ * allocates after construction, and {@link #clear()} only touches the slots in use, so one
+ * instance can be reused across many searches.
+ */
+public class IntMinHeap {
+    private static final int ARITY = 4;
+    private static final int NOT_IN_HEAP = -1;
+
+    private final int[] heap;
+    private final double[] keys;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * @param capacity one more than the largest id that will be added. Must be >= 0.
+     */
+    public IntMinHeap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative.");
+        }
+        this.heap = new int[capacity];
+        this.keys = new double[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, NOT_IN_HEAP);
+        this.size = 0;
+    }
+
+    public int capacity() {
+        return positions.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return positions[id] != NOT_IN_HEAP;
+    }
+
+    /**
+     * Adds the id with the given key, or updates its key if it is already present.
+     */
+    public void addOrUpdate(int id, double key) {
+        int index = positions[id];
+        if (index == NOT_IN_HEAP) {
+            keys[id] = key;
+            heap[size] = id;
+            positions[id] = size;
+            percolateUp(size++);
+        } else {
+            double oldKey = keys[id];
+            keys[id] = key;
+            if (key < oldKey) {
+                percolateUp(index);
+            } else {
+                percolateDown(index);
+            }
+        }
+    }
+
+    public int peekMin() {
+        if (size == 0) {
+            throw new NoSuchElementException("Priority Queue is empty.");
+        }
+        return heap[0];
+    }
+
+    public double peekMinKey() {
+        if (size == 0) {
+            throw new NoSuchElementException("Priority Queue is empty.");
+        }
+        return keys[heap[0]];
+    }
+
+    public int removeMin() {
+        if (size == 0) {
+            throw new NoSuchElementException("Priority Queue is empty.");
+        }
+        int min = heap[0];
+        positions[min] = NOT_IN_HEAP;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            percolateDown(0);
+        }
+        return min;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = NOT_IN_HEAP;
+        }
+        size = 0;
+    }
+
+    private void percolateUp(int index) {
+        int id = heap[index];
+        double key = keys[id];
+        while (index > 0) {
+            int parent = (index - 1) / ARITY;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            positions[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = id;
+        positions[id] = index;
+    }
+
+    private void percolateDown(int index) {
+        int id = heap[index];
+        double key = keys[id];
+        while (true) {
+            int firstChild = index * ARITY + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            int lastChild = Math.min(firstChild + ARITY, size);
+            int smallest = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (keys[heap[child]] < keys[heap[smallest]]) {
+                    smallest = child;
+                }
+            }
+            if (key <= keys[heap[smallest]]) {
+                break;
+            }
+            heap[index] = heap[smallest];
+            positions[heap[index]] = index;
+            index = smallest;
+        }
+        heap[index] = id;
+        positions[id] = index;
+    }
+}
@@ -7,21 +7,38 @@ import mazes.entities.Wall;
 import mazes.logic.MazeGraph;
 import graphs.minspantrees.MinimumSpanningTree;
 import graphs.minspantrees.KruskalMinimumSpanningTreeFinder;
+import maps.ObjectIntHashMap;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.Set;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.function.DoubleSupplier;
 /**
  * Carves out a maze based on Kruskal's algorithm.
+ *
+ * Unless a custom minimum spanning tree finder is supplied, walls are carved by a fast path
+ * that works entirely on dense int ids: random weights are drawn into a primitive array,
+ * radix sorted, and fed to an int union-find shared with {@link BatchMazeGenerator}. It
+ * removes exactly the same walls as running {@link KruskalMinimumSpanningTreeFinder} over a
+ * {@link MazeGraph} with the same seed.
  */
 public class KruskalMazeCarver extends MazeCarver {
+    // nextDouble() returns a multiple of 2^-53, so scaling by 2^53 is exact
+    private static final double WEIGHT_SCALE = 0x1.0p53;
+
     MinimumSpanningTreeFinder<MazeGraph, Room, EdgeWithData<Room, Wall>> minimumSpanningTreeFinder;
     private final Random rand;
+    // Only set by matchingBatchGenerator, and then used instead of rand
+    private final SplittableRandom batchRandom;
 
     public KruskalMazeCarver(MinimumSpanningTreeFinder
                                  <MazeGraph, Room, EdgeWithData<Room, Wall>> minimumSpanningTreeFinder) {
         this.minimumSpanningTreeFinder = minimumSpanningTreeFinder;
         this.rand = new Random();
+        this.batchRandom = null;
     }
 
     public KruskalMazeCarver(MinimumSpanningTreeFinder
@@ -29,27 +46,60 @@ public class KruskalMazeCarver extends MazeCarver {
                              long seed) {
         this.minimumSpanningTreeFinder = minimumSpanningTreeFinder;
         this.rand = new Random(seed);
+        this.batchRandom = null;
+    }
+
+    private KruskalMazeCarver(MinimumSpanningTreeFinder
+                                  <MazeGraph, Room, EdgeWithData<Room, Wall>> minimumSpanningTreeFinder,
+                              SplittableRandom batchRandom) {
+        this.minimumSpanningTreeFinder = minimumSpanningTreeFinder;
+        this.rand = null;
+        this.batchRandom = batchRandom;
+    }
+
+    /**
+     * Returns a carver that draws its weights the way {@link BatchMazeGenerator} does: from a
+     * {@code SplittableRandom} with the given seed, and in the order
+     * {@link BatchMazeGenerator.Maze} numbers the walls when the rooms form a rectangular grid.
+     * Its first maze on such a grid is the one a {@link BatchMazeGenerator.Job} of the same
+     * size and seed carves.
+     *
+     * Carvers made by the constructors are unaffected, and keep drawing from
+     * {@code java.util.Random} in the iteration order of the walls.
+     */
+    public static KruskalMazeCarver matchingBatchGenerator(MinimumSpanningTreeFinder
+                                                               <MazeGraph, Room, EdgeWithData<Room, Wall>>
+                                                               minimumSpanningTreeFinder,
+                                                           long seed) {
+        return new KruskalMazeCarver(minimumSpanningTreeFinder, new SplittableRandom(seed));
     }
 
     @Override
     protected Set<Wall> chooseWallsToRemove(Set<Wall> walls) {
+        Wall[] ordered = batchRandom == null ? null : gridOrder(walls);
+        if (ordered == null) {
+            ordered = walls.toArray(new Wall[0]);
+        }
+        DoubleSupplier weights = batchRandom == null ? rand::nextDouble : batchRandom::nextDouble;
+        if (minimumSpanningTreeFinder == null
+            || minimumSpanningTreeFinder.getClass() == KruskalMinimumSpanningTreeFinder.class) {
+            return chooseWallsToRemoveFast(ordered, weights);
+        }
 
         Collection<EdgeWithData<Room, Wall>> edgesWithData = new HashSet<>();
 
         // Add all walls as edges with random weights
-        for (Wall wall : walls) {
-            double weight = rand.nextDouble(); // assign a random weight
+        for (Wall wall : ordered) {
+            double weight = weights.getAsDouble(); // assign a random weight
             edgesWithData.add(new EdgeWithData<>(wall.getRoom1(), wall.getRoom2(), weight, wall));
         }
 
         // Create a new MazeGraph with the edges
         MazeGraph mazeGraph = new MazeGraph(edgesWithData);
 
-        // Find the minimum spanning tree using Kruskal's algorithm
-        KruskalMinimumSpanningTreeFinder<MazeGraph, Room, EdgeWithData<Room, Wall>> finder =
-            new KruskalMinimumSpanningTreeFinder<>();
-
-        MinimumSpanningTree<Room, EdgeWithData<Room, Wall>> mst = finder.findMinimumSpanningTree(mazeGraph);
+        // Find the minimum spanning tree using the injected finder
+        MinimumSpanningTree<Room, EdgeWithData<Room, Wall>> mst =
+            minimumSpanningTreeFinder.findMinimumSpanningTree(mazeGraph);
 
         // Extract the walls from the MST
         Set<Wall> wallsToRemove = new HashSet<>();
@@ -63,4 +113,95 @@ public class KruskalMazeCarver extends MazeCarver {
 
         return wallsToRemove;
     }
+
+    private static Set<Wall> chooseWallsToRemoveFast(Wall[] walls, DoubleSupplier weights) {
+        ObjectIntHashMap<Room> roomIds = new ObjectIntHashMap<>();
+        int[] rooms1 = new int[walls.length];
+        int[] rooms2 = new int[walls.length];
+        for (int w = 0; w < walls.length; w++) {
+            rooms1[w] = roomIdOf(roomIds, walls[w].getRoom1());
+            rooms2[w] = roomIdOf(roomIds, walls[w].getRoom2());
+        }
+
+        int roomCount = roomIds.size();
+        IntKruskal kruskal = new IntKruskal();
+        kruskal.reset(roomCount, walls.length);
+        for (int w = 0; w < walls.length; w++) {
+            kruskal.setWall(w, rooms1[w], rooms2[w]);
+        }
+        // Draw weights in the same order as the general path so a seed carves the same maze
+        BitSet removed = kruskal.carve(() -> (long) (weights.getAsDouble() * WEIGHT_SCALE));
+
+        Set<Wall> wallsToRemove = new HashSet<>(Math.max(16, (int) (roomCount / 0.75f) + 1));
+        for (int w = removed.nextSetBit(0); w >= 0; w = removed.nextSetBit(w + 1)) {
+            wallsToRemove.add(walls[w]);
+        }
+        return wallsToRemove;
+    }
+
+    private static int roomIdOf(ObjectIntHashMap<Room> roomIds, Room room) {
+        int id = roomIds.getInt(room);
+        if (id < 0) {
+            id = roomIds.size();
+            roomIds.putInt(room, id);
+        }
+        return id;
+    }
+
+    /**
+     * Numbers the walls like {@link BatchMazeGenerator.Maze}, reading each room's grid
+     * position off the rank of its center's coordinates. Returns null if the walls are not
+     * exactly those between neighboring rooms of a full rectangular grid.
+     */
+    private static Wall[] gridOrder(Set<Wall> walls) {
+        int[] xs = new int[2 * walls.size()];
+        int[] ys = new int[2 * walls.size()];
+        int count = 0;
+        for (Wall wall : walls) {
+            xs[count] = wall.getRoom1().getCenter().x;
+            ys[count] = wall.getRoom1().getCenter().y;
+            xs[count + 1] = wall.getRoom2().getCenter().x;
+            ys[count + 1] = wall.getRoom2().getCenter().y;
+            count += 2;
+        }
+        xs = distinctSorted(xs);
+        ys = distinctSorted(ys);
+        int width = xs.length;
+        int height = ys.length;
+        if ((long) width * height > Integer.MAX_VALUE || IntKruskal.gridWallCount(width, height) != walls.size()) {
+            return null;
+        }
+
+        Wall[] ordered = new Wall[walls.size()];
+        for (Wall wall : walls) {
+            int x1 = Arrays.binarySearch(xs, wall.getRoom1().getCenter().x);
+            int y1 = Arrays.binarySearch(ys, wall.getRoom1().getCenter().y);
+            int x2 = Arrays.binarySearch(xs, wall.getRoom2().getCenter().x);
+            int y2 = Arrays.binarySearch(ys, wall.getRoom2().getCenter().y);
+            int number;
+            if (y1 == y2 && Math.abs(x1 - x2) == 1) {
+                number = IntKruskal.eastWall(width, Math.min(x1, x2), y1);
+            } else if (x1 == x2 && Math.abs(y1 - y2) == 1) {
+                number = IntKruskal.southWall(width, height, x1, Math.min(y1, y2));
+            } else {
+                return null;
+            }
+            if (ordered[number] != null) {
+                return null;
+            }
+            ordered[number] = wall;
+        }
+        return ordered;
+    }
+
+    private static int[] distinctSorted(int[] values) {
+        Arrays.sort(values);
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (count == 0 || values[count - 1] != values[i]) {
+                values[count++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, count);
+    }
 }
@@ -3,10 +3,11 @@ package graphs.minspantrees;
 import disjointsets.DisjointSets;
 import disjointsets.QuickFindDisjointSets;
 import graphs.BaseEdge;
+import graphs.CompactGraph;
 import graphs.KruskalGraph;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -33,6 +34,11 @@ public class KruskalMinimumSpanningTreeFinder<G extends KruskalGraph<V, E>, V, E
 
     @Override
     public MinimumSpanningTree<V, E> findMinimumSpanningTree(G graph) {
+            if (graph instanceof CompactGraph) {
+                @SuppressWarnings("unchecked")
+                CompactGraph<V, E> compactGraph = (CompactGraph<V, E>) graph;
+                return findCompactMinimumSpanningTree(compactGraph);
+            }
 
             DisjointSets<V> disjointSets = createDisjointSets();
 
@@ -46,15 +52,23 @@ public class KruskalMinimumSpanningTreeFinder<G extends KruskalGraph<V, E>, V, E
                 return new MinimumSpanningTree.Success<V, E>(new ArrayList<>());
             }
 
-            // Sort all the edges of the graph by weight
+            // Order the edges by weight lazily; the tree is usually complete long before the
+            // heaviest edges come up, so there is no point sorting all of them
             List<E> edges = new ArrayList<>(graph.allEdges());
-            edges.sort(Comparator.comparingDouble(E::weight));
+            double[] weights = new double[edges.size()];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = edges.get(i).weight();
+            }
+            LazyEdgeOrder order = new LazyEdgeOrder(weights);
+            int treeSize = graph.allVertices().size() - 1;
 
             // This will store the edges of the MST
             List<E> mstEdges = new ArrayList<>();
 
-            // Iterate over the sorted edges and add them to the MST if it doesn't form a cycle
-            for (E edge : edges) {
+            // Take the lightest remaining edge and add it to the MST if it doesn't form a cycle,
+            // stopping as soon as the tree spans every vertex
+            while (order.hasNext() && mstEdges.size() < treeSize) {
+                E edge = edges.get(order.next());
                 V from = edge.from();
                 V to = edge.to();
 
@@ -66,11 +80,74 @@ public class KruskalMinimumSpanningTreeFinder<G extends KruskalGraph<V, E>, V, E
             }
 
             // If the number of edges added to the MST equals the number of vertices minus 1, we have an MST
-            if (mstEdges.size() == graph.allVertices().size() - 1) {
+            if (mstEdges.size() == treeSize) {
                 return new MinimumSpanningTree.Success<V, E>(mstEdges);
             } else {
                 return new MinimumSpanningTree.Failure<V, E>();
             }
         }
 
+    /**
+     * Same as above, but over the edge arrays of a compact graph, with components tracked in an
+     * {@code int[]} union-find over vertex ids.
+     * (This path does not go through {@link #createDisjointSets()}.)
+     */
+    private MinimumSpanningTree<V, E> findCompactMinimumSpanningTree(CompactGraph<V, E> graph) {
+        int n = graph.vertexCount();
+        if (n == 0) {
+            return new MinimumSpanningTree.Success<V, E>(new ArrayList<>());
+        }
+
+        // Negative entries are roots holding -(size of the set)
+        int[] parents = new int[n];
+        Arrays.fill(parents, -1);
+
+        double[] weights = new double[graph.edgeCount()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = graph.edgeWeight(i);
+        }
+        LazyEdgeOrder order = new LazyEdgeOrder(weights);
+
+        List<E> mstEdges = new ArrayList<>();
+        while (order.hasNext() && mstEdges.size() < n - 1) {
+            int edge = order.next();
+            if (union(parents, graph.edgeSource(edge), graph.edgeTarget(edge))) {
+                mstEdges.add(graph.edge(edge));
+            }
+        }
+
+        if (mstEdges.size() == n - 1) {
+            return new MinimumSpanningTree.Success<V, E>(mstEdges);
+        } else {
+            return new MinimumSpanningTree.Failure<V, E>();
+        }
+    }
+
+    private static int find(int[] parents, int index) {
+        // Path halving: point every other node on the path at its grandparent
+        while (parents[index] >= 0) {
+            int parent = parents[index];
+            if (parents[parent] >= 0) {
+                parents[index] = parents[parent];
+            }
+            index = parents[index];
+        }
+        return index;
+    }
+
+    private static boolean union(int[] parents, int index1, int index2) {
+        int root1 = find(parents, index1);
+        int root2 = find(parents, index2);
+        if (root1 == root2) {
+            return false;
+        }
+        if (-parents[root1] < -parents[root2]) {
+            int temp = root1;
+            root1 = root2;
+            root2 = temp;
+        }
+        parents[root1] += parents[root2];
+        parents[root2] = root1;
+        return true;
+    }
 }
@@ -0,0 +1,62 @@
+package graphs.minspantrees;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Hands out edge indices in increasing order of weight, without sorting them all up front.
+ *
+ * The indices are heapified in O(E), and each call to {@link #next()} costs O(log E), so a
+ * caller that stops after k edges pays O(E + k log E) instead of O(E log E). Equal weights
+ * come out in increasing index order, which matches what a stable sort would produce.
+ */
+class LazyEdgeOrder {
+    private final double[] weights;
+    private final int[] heap;
+    private int size;
+
+    LazyEdgeOrder(double[] weights) {
+        this.weights = weights;
+        this.heap = new int[weights.length];
+        for (int i = 0; i < heap.length; i++) {
+            heap[i] = i;
+        }
+        this.size = heap.length;
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            percolateDown(i);
+        }
+    }
+
+    boolean hasNext() {
+        return size > 0;
+    }
+
+    int next() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        int min = heap[0];
+        heap[0] = heap[--size];
+        percolateDown(0);
+        return min;
+    }
+
+    private boolean less(int edge1, int edge2) {
+        return weights[edge1] < weights[edge2] || (weights[edge1] == weights[edge2] && edge1 < edge2);
+    }
+
+    private void percolateDown(int index) {
+        int edge = heap[index];
+        while (2 * index + 1 < size) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], edge)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = edge;
+    }
+}
@@ -0,0 +1,119 @@
+package benchmarks;
+
+import maps.AbstractIterableMap;
+import maps.ArrayMap;
+import maps.ChainedHashMap;
+import maps.HashedArrayMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the map implementations on get, put, remove and iteration.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmark {
+    @Param({"ArrayMap", "HashedArrayMap", "ChainedHashMap", "ChainedHashMap+HashedArrayMap"})
+    public String implementation;
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private AbstractIterableMap<Integer, Integer> map;
+    private Integer[] keys;
+    private Integer[] absentKeys;
+    private int cursor;
+
+    static AbstractIterableMap<Integer, Integer> createMap(String implementation) {
+        switch (implementation) {
+            case "ArrayMap":
+                return new ArrayMap<>();
+            case "HashedArrayMap":
+                return new HashedArrayMap<>();
+            case "ChainedHashMap":
+                return new ChainedHashMap<>();
+            case "ChainedHashMap+HashedArrayMap":
+                return ChainedHashMap.withHashedArrayChains();
+            default:
+                throw new IllegalArgumentException("Unknown map: " + implementation);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random rand = new Random(373);
+        map = createMap(implementation);
+        keys = new Integer[size];
+        absentKeys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = rand.nextInt() & Integer.MAX_VALUE;
+            absentKeys[i] = -1 - i;
+            map.put(keys[i], i);
+        }
+        cursor = 0;
+    }
+
+    private int nextIndex() {
+        cursor = cursor + 1 == size ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    @Benchmark
+    public Integer getPresent() {
+        return map.get(keys[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean containsAbsent() {
+        return map.containsKey(absentKeys[nextIndex()]);
+    }
+
+    @Benchmark
+    public Integer putExisting() {
+        int i = nextIndex();
+        return map.put(keys[i], i);
+    }
+
+    @Benchmark
+    public Integer removeAndReinsert() {
+        int i = nextIndex();
+        Integer value = map.remove(keys[i]);
+        map.put(keys[i], i);
+        return value;
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (Map.Entry<Integer, Integer> entry : map) {
+            blackhole.consume(entry.getValue());
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public AbstractIterableMap<Integer, Integer> buildFromEmpty() {
+        AbstractIterableMap<Integer, Integer> fresh = createMap(implementation);
+        for (int i = 0; i < size; i++) {
+            fresh.put(keys[i], i);
+        }
+        return fresh;
+    }
+}
@@ -0,0 +1,33 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event recorded when a hash map finishes a resize.
+ */
+@Name("datastructures.MapResize")
+@Label("Map Resize")
+@Category("Data Structures")
+public class MapResizeEvent extends jdk.jfr.Event {
+    @Label("Map Class")
+    public String mapClass;
+
+    @Label("Entries")
+    public int entries;
+
+    @Label("Old Chain Count")
+    public int oldChainCount;
+
+    @Label("New Chain Count")
+    public int newChainCount;
+
+    @Label("Rehash Time")
+    @Timespan
+    public long rehashNanos;
+
+    @Label("Incremental")
+    public boolean incremental;
+}
@@ -0,0 +1,74 @@
+package mazes.logic;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A little-endian view of a whole file mapped into memory, however large.
+ *
+ * A single {@code MappedByteBuffer} is indexed by {@code int} and so stops at 2 GB; this maps
+ * the file as a run of fixed-size chunks instead and addresses it with {@code long} offsets.
+ * The chunk size is a multiple of 8, so a value stored at a multiple of its own size never
+ * straddles two chunks. Every access must be aligned that way. Reads and writes are absolute,
+ * so an instance can be read from several threads at once.
+ */
+final class MappedFile {
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final MappedByteBuffer[] chunks;
+
+    private MappedFile(MappedByteBuffer[] chunks) {
+        this.chunks = chunks;
+    }
+
+    /**
+     * Maps the first {@code size} bytes of the channel's file, growing the file if it is
+     * shorter and the mode allows writing. The mapping stays valid after the channel is closed.
+     */
+    static MappedFile map(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+        MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            long start = (long) i << CHUNK_SHIFT;
+            chunks[i] = channel.map(mode, start, Math.min(CHUNK_SIZE, size - start));
+            chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new MappedFile(chunks);
+    }
+
+    int getInt(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getInt((int) (offset & CHUNK_MASK));
+    }
+
+    long getLong(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & CHUNK_MASK));
+    }
+
+    double getDouble(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getDouble((int) (offset & CHUNK_MASK));
+    }
+
+    void putInt(long offset, int value) {
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putInt((int) (offset & CHUNK_MASK), value);
+    }
+
+    void putLong(long offset, long value) {
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putLong((int) (offset & CHUNK_MASK), value);
+    }
+
+    void putDouble(long offset, double value) {
+        chunks[(int) (offset >>> CHUNK_SHIFT)].putDouble((int) (offset & CHUNK_MASK), value);
+    }
+
+    /**
+     * Writes any changes through to the storage device.
+     */
+    void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package mazes.logic;
+
+import graphs.EdgeWithData;
+import graphs.KruskalGraph;
+import java.awt.Point;
+import java.awt.Polygon;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * A read-only maze graph backed directly by a memory-mapped {@link MazeFileFormat} file.
+ *
+ * Vertices are room ids and each edge's data is its wall id. Nothing is copied onto the heap
+ * up front: the collections returned here are views that read the mapped buffer and create
+ * edge objects only as they are requested. Reads are absolute, so a single instance can be
+ * shared between threads. The room and wall geometry is available too, for rebuilding the
+ * maze's {@code Room} and {@code Wall} objects with {@link MazeFileFormat#read(MappedMazeGraph)}.
+ */
+public class MappedMazeGraph implements KruskalGraph<Integer, EdgeWithData<Integer, Integer>> {
+    private final MappedFile buffer;
+    private final MazeFileFormat.Layout layout;
+    private final int roomCount;
+    private final int wallCount;
+
+    MappedMazeGraph(MappedFile buffer, MazeFileFormat.Layout layout, int roomCount, int wallCount) {
+        this.buffer = buffer;
+        this.layout = layout;
+        this.roomCount = roomCount;
+        this.wallCount = wallCount;
+    }
+
+    public int roomCount() {
+        return roomCount;
+    }
+
+    public int wallCount() {
+        return wallCount;
+    }
+
+    public int roomCenterX(int room) {
+        return buffer.getInt(layout.roomCenters + 8L * room);
+    }
+
+    public int roomCenterY(int room) {
+        return buffer.getInt(layout.roomCenters + 8L * room + 4);
+    }
+
+    /**
+     * Returns a new copy of the room's outline.
+     */
+    public Polygon roomPolygon(int room) {
+        long from = buffer.getLong(layout.polygonOffsets + 8L * room);
+        long to = buffer.getLong(layout.polygonOffsets + 8L * (room + 1));
+        int pointCount = (int) (to - from);
+        int[] xs = new int[pointCount];
+        int[] ys = new int[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            xs[i] = buffer.getInt(layout.polygonPoints + 8 * (from + i));
+            ys[i] = buffer.getInt(layout.polygonPoints + 8 * (from + i) + 4);
+        }
+        return new Polygon(xs, ys, pointCount);
+    }
+
+    public int wallRoom1(int wall) {
+        return buffer.getInt(layout.wallRooms + 8L * wall);
+    }
+
+    public int wallRoom2(int wall) {
+        return buffer.getInt(layout.wallRooms + 8L * wall + 4);
+    }
+
+    /**
+     * Returns the start of the line segment the wall is drawn as.
+     */
+    public Point wallLineStart(int wall) {
+        return new Point(buffer.getInt(layout.wallLines + 16L * wall),
+            buffer.getInt(layout.wallLines + 16L * wall + 4));
+    }
+
+    /**
+     * Returns the end of the line segment the wall is drawn as.
+     */
+    public Point wallLineEnd(int wall) {
+        return new Point(buffer.getInt(layout.wallLines + 16L * wall + 8),
+            buffer.getInt(layout.wallLines + 16L * wall + 12));
+    }
+
+    public double wallWeight(int wall) {
+        return buffer.getDouble(layout.weights + 8L * wall);
+    }
+
+    public boolean isRemoved(int wall) {
+        long bits = buffer.getLong(layout.removed + 8L * (wall >>> 6));
+        return (bits & (1L << (wall & 63))) != 0;
+    }
+
+    private EdgeWithData<Integer, Integer> wallEdge(int wall, int fromRoom) {
+        int room1 = wallRoom1(wall);
+        int room2 = wallRoom2(wall);
+        int toRoom = fromRoom == room1 ? room2 : room1;
+        return new EdgeWithData<>(fromRoom, toRoom, wallWeight(wall), wall);
+    }
+
+    @Override
+    public Collection<EdgeWithData<Integer, Integer>> outgoingEdgesFrom(Integer room) {
+        if (room == null || room < 0 || room >= roomCount) {
+            return Collections.emptyList();
+        }
+        int from = buffer.getInt(layout.roomOffsets + 4L * room);
+        int to = buffer.getInt(layout.roomOffsets + 4L * (room + 1));
+        return new AbstractList<EdgeWithData<Integer, Integer>>() {
+            @Override
+            public EdgeWithData<Integer, Integer> get(int index) {
+                if (index < 0 || index >= to - from) {
+                    throw new IndexOutOfBoundsException();
+                }
+                return wallEdge(buffer.getInt(layout.roomWalls + 4L * (from + index)), room);
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    @Override
+    public Collection<Integer> allVertices() {
+        return new AbstractList<Integer>() {
+            @Override
+            public Integer get(int index) {
+                if (index < 0 || index >= roomCount) {
+                    throw new IndexOutOfBoundsException();
+                }
+                return index;
+            }
+
+            @Override
+            public int size() {
+                return roomCount;
+            }
+        };
+    }
+
+    @Override
+    public Collection<EdgeWithData<Integer, Integer>> allEdges() {
+        return new AbstractList<EdgeWithData<Integer, Integer>>() {
+            @Override
+            public EdgeWithData<Integer, Integer> get(int index) {
+                if (index < 0 || index >= wallCount) {
+                    throw new IndexOutOfBoundsException();
+                }
+                return wallEdge(index, wallRoom1(index));
+            }
+
+            @Override
+            public int size() {
+                return wallCount;
+            }
+        };
+    }
+}
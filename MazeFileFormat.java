@@ -0,0 +1,405 @@
+package mazes.logic;
+
+import graphs.EdgeWithData;
+import graphs.KruskalGraph;
+import mazes.entities.LineSegment;
+import mazes.entities.Room;
+import mazes.entities.Wall;
+import java.awt.Point;
+import java.awt.Polygon;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A versioned binary file format for carved mazes.
+ *
+ * A file holds everything needed to rebuild the maze without regenerating it: each room's
+ * center and outline, each wall's rooms, line segment and weight, and which walls were
+ * removed. All sections are little-endian primitive arrays, laid out so that every section is
+ * 8-byte aligned:
+ *
+ * <pre>
+ *   header          int magic, int version, int roomCount, int wallCount, long pointCount,
+ *                   8 reserved bytes
+ *   weights         double[wallCount]
+ *   removed         long[ceil(wallCount / 64)]    bit w set if wall w was removed
+ *   roomCenters     int[2 * roomCount]            x, y of each room's center
+ *   wallRooms       int[2 * wallCount]            the wall's room1 and room2 ids
+ *   wallLines       int[4 * wallCount]            start x, y and end x, y of each wall's line
+ *   roomOffsets     int[roomCount + 1]            room r's walls are roomWalls[offsets[r], offsets[r + 1])
+ *   roomWalls       int[2 * wallCount]
+ *   polygonOffsets  long[roomCount + 1]           room r's outline is points [offsets[r], offsets[r + 1])
+ *   polygonPoints   int[2 * pointCount]           x, y of each outline point
+ * </pre>
+ *
+ * The roomOffsets section is padded to a multiple of 8 bytes. Rooms and walls are numbered by
+ * their geometry rather than by the order a graph happens to list them: rooms by center (top
+ * to bottom, then left to right, then by outline), and walls by their two room ids and then
+ * their line. So the same maze always gets the same numbers, in any JVM.
+ *
+ * {@link #open(Path)} maps a file and exposes it as a graph of room and wall ids without
+ * reading it onto the heap, and {@link #read(MappedMazeGraph)} rebuilds the {@code Room} and
+ * {@code Wall} objects from it. Files are mapped in chunks, so they may exceed 2 GB.
+ *
+ * @see MappedMazeGraph
+ */
+public final class MazeFileFormat {
+    static final int MAGIC = 0x4D415A45; // "MAZE"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 32;
+
+    private MazeFileFormat() {
+    }
+
+    /**
+     * Byte offsets of each section, computed from the room, wall and outline point counts.
+     */
+    static final class Layout {
+        final long weights;
+        final long removed;
+        final long roomCenters;
+        final long wallRooms;
+        final long wallLines;
+        final long roomOffsets;
+        final long roomWalls;
+        final long polygonOffsets;
+        final long polygonPoints;
+        final long totalBytes;
+
+        Layout(int roomCount, int wallCount, long pointCount) {
+            weights = HEADER_BYTES;
+            removed = weights + 8L * wallCount;
+            roomCenters = removed + 8L * ((wallCount + 63) / 64);
+            wallRooms = roomCenters + 8L * roomCount;
+            wallLines = wallRooms + 8L * wallCount;
+            roomOffsets = wallLines + 16L * wallCount;
+            roomWalls = roomOffsets + 8L * ((roomCount + 2) / 2);
+            polygonOffsets = roomWalls + 8L * wallCount;
+            polygonPoints = polygonOffsets + 8L * (roomCount + 1);
+            totalBytes = polygonPoints + 8L * pointCount;
+        }
+    }
+
+    /**
+     * A maze read back from a file, rebuilt as {@code Room} and {@code Wall} objects.
+     */
+    public static final class StoredMaze {
+        private final List<Room> rooms;
+        private final List<Wall> walls;
+        private final double[] weights;
+        private final Set<Wall> removedWalls;
+
+        StoredMaze(List<Room> rooms, List<Wall> walls, double[] weights, Set<Wall> removedWalls) {
+            this.rooms = rooms;
+            this.walls = walls;
+            this.weights = weights;
+            this.removedWalls = removedWalls;
+        }
+
+        /**
+         * Returns the rooms, indexed by room id.
+         */
+        public List<Room> rooms() {
+            return rooms;
+        }
+
+        /**
+         * Returns the walls, indexed by wall id.
+         */
+        public List<Wall> walls() {
+            return walls;
+        }
+
+        public Set<Wall> removedWalls() {
+            return removedWalls;
+        }
+
+        /**
+         * Returns a new maze graph over the rooms, with one edge per wall carrying its stored
+         * weight.
+         */
+        public MazeGraph graph() {
+            List<EdgeWithData<Room, Wall>> edges = new ArrayList<>(walls.size());
+            for (int w = 0; w < walls.size(); w++) {
+                Wall wall = walls.get(w);
+                edges.add(new EdgeWithData<>(wall.getRoom1(), wall.getRoom2(), weights[w], wall));
+            }
+            return new MazeGraph(edges);
+        }
+    }
+
+    /**
+     * Writes the given maze graph to {@code file}, replacing it if it exists.
+     *
+     * @param maze the graph of rooms and walls, e.g. a {@link MazeGraph}
+     * @param removedWalls the walls carved out of the maze, e.g. from a {@code MazeCarver}
+     */
+    public static void write(Path file, KruskalGraph<Room, EdgeWithData<Room, Wall>> maze,
+                             Set<Wall> removedWalls) throws IOException {
+        Numbering numbering = new Numbering(maze);
+        List<Room> rooms = numbering.rooms;
+        List<EdgeWithData<Room, Wall>> walls = numbering.walls;
+        int roomCount = rooms.size();
+        int wallCount = walls.size();
+        if (wallCount > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Maze has too many walls: " + wallCount);
+        }
+        long pointCount = 0;
+        for (Room room : rooms) {
+            pointCount += room.getPolygon().npoints;
+        }
+        Layout layout = new Layout(roomCount, wallCount, pointCount);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedFile buffer = MappedFile.map(channel, FileChannel.MapMode.READ_WRITE, layout.totalBytes);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, roomCount);
+            buffer.putInt(12, wallCount);
+            buffer.putLong(16, pointCount);
+
+            long point = 0;
+            for (int r = 0; r < roomCount; r++) {
+                Room room = rooms.get(r);
+                buffer.putInt(layout.roomCenters + 8L * r, room.getCenter().x);
+                buffer.putInt(layout.roomCenters + 8L * r + 4, room.getCenter().y);
+                Polygon polygon = room.getPolygon();
+                buffer.putLong(layout.polygonOffsets + 8L * r, point);
+                for (int i = 0; i < polygon.npoints; i++, point++) {
+                    buffer.putInt(layout.polygonPoints + 8 * point, polygon.xpoints[i]);
+                    buffer.putInt(layout.polygonPoints + 8 * point + 4, polygon.ypoints[i]);
+                }
+            }
+            buffer.putLong(layout.polygonOffsets + 8L * roomCount, point);
+
+            int[] degrees = new int[roomCount];
+            int[] wallRooms = new int[2 * wallCount];
+            for (int w = 0; w < wallCount; w++) {
+                EdgeWithData<Room, Wall> edge = walls.get(w);
+                Wall wall = edge.data();
+                int room1 = requireId(numbering.roomIds, wall.getRoom1());
+                int room2 = requireId(numbering.roomIds, wall.getRoom2());
+                wallRooms[2 * w] = room1;
+                wallRooms[2 * w + 1] = room2;
+                degrees[room1]++;
+                degrees[room2]++;
+                LineSegment line = wall.getDividingLine();
+                buffer.putDouble(layout.weights + 8L * w, edge.weight());
+                buffer.putInt(layout.wallRooms + 8L * w, room1);
+                buffer.putInt(layout.wallRooms + 8L * w + 4, room2);
+                buffer.putInt(layout.wallLines + 16L * w, line.start.x);
+                buffer.putInt(layout.wallLines + 16L * w + 4, line.start.y);
+                buffer.putInt(layout.wallLines + 16L * w + 8, line.end.x);
+                buffer.putInt(layout.wallLines + 16L * w + 12, line.end.y);
+            }
+            long[] removed = new long[(wallCount + 63) / 64];
+            for (int w = 0; w < wallCount; w++) {
+                if (removedWalls.contains(walls.get(w).data())) {
+                    removed[w >>> 6] |= 1L << (w & 63);
+                }
+            }
+            for (int i = 0; i < removed.length; i++) {
+                buffer.putLong(layout.removed + 8L * i, removed[i]);
+            }
+
+            // Bucket each wall under both of its rooms
+            int[] offsets = new int[roomCount + 1];
+            for (int r = 0; r < roomCount; r++) {
+                offsets[r + 1] = offsets[r] + degrees[r];
+            }
+            for (int r = 0; r <= roomCount; r++) {
+                buffer.putInt(layout.roomOffsets + 4L * r, offsets[r]);
+            }
+            int[] next = new int[roomCount];
+            System.arraycopy(offsets, 0, next, 0, roomCount);
+            for (int wall = 0; wall < wallCount; wall++) {
+                for (int side = 0; side < 2; side++) {
+                    int room = wallRooms[2 * wall + side];
+                    buffer.putInt(layout.roomWalls + 4L * next[room]++, wall);
+                }
+            }
+            buffer.force();
+        }
+    }
+
+    /**
+     * The room and wall numbers a maze graph gets in its file, derived from its geometry.
+     */
+    private static final class Numbering {
+        private static final Comparator<Room> ROOM_ORDER = Comparator
+            .comparingInt((Room room) -> room.getCenter().y)
+            .thenComparingInt(room -> room.getCenter().x)
+            .thenComparing(Room::getPolygon, MazeFileFormat::comparePolygons);
+
+        final List<Room> rooms;
+        final Map<Room, Integer> roomIds;
+        final List<EdgeWithData<Room, Wall>> walls;
+
+        Numbering(KruskalGraph<Room, EdgeWithData<Room, Wall>> maze) {
+            rooms = new ArrayList<>(maze.allVertices());
+            rooms.sort(ROOM_ORDER);
+            roomIds = new HashMap<>();
+            for (Room room : rooms) {
+                roomIds.put(room, roomIds.size());
+            }
+            // An undirected graph may list each wall in both directions; keep the first
+            Map<Wall, EdgeWithData<Room, Wall>> firstEdges = new LinkedHashMap<>();
+            for (EdgeWithData<Room, Wall> edge : maze.allEdges()) {
+                firstEdges.putIfAbsent(edge.data(), edge);
+            }
+            walls = new ArrayList<>(firstEdges.values());
+            walls.sort(Comparator
+                .comparingInt((EdgeWithData<Room, Wall> edge) -> requireId(roomIds, edge.data().getRoom1()))
+                .thenComparingInt(edge -> requireId(roomIds, edge.data().getRoom2()))
+                .thenComparing(edge -> edge.data().getDividingLine(), MazeFileFormat::compareLines));
+        }
+    }
+
+    private static int comparePolygons(Polygon a, Polygon b) {
+        if (a.npoints != b.npoints) {
+            return Integer.compare(a.npoints, b.npoints);
+        }
+        for (int i = 0; i < a.npoints; i++) {
+            if (a.xpoints[i] != b.xpoints[i]) {
+                return Integer.compare(a.xpoints[i], b.xpoints[i]);
+            }
+            if (a.ypoints[i] != b.ypoints[i]) {
+                return Integer.compare(a.ypoints[i], b.ypoints[i]);
+            }
+        }
+        return 0;
+    }
+
+    private static int compareLines(LineSegment a, LineSegment b) {
+        int c = Integer.compare(a.start.x, b.start.x);
+        if (c == 0) {
+            c = Integer.compare(a.start.y, b.start.y);
+        }
+        if (c == 0) {
+            c = Integer.compare(a.end.x, b.end.x);
+        }
+        if (c == 0) {
+            c = Integer.compare(a.end.y, b.end.y);
+        }
+        return c;
+    }
+
+    /**
+     * Rebuilds the rooms and walls stored in a mapped maze file.
+     */
+    public static StoredMaze read(MappedMazeGraph file) {
+        List<Room> rooms = new ArrayList<>(file.roomCount());
+        for (int r = 0; r < file.roomCount(); r++) {
+            Point center = new Point(file.roomCenterX(r), file.roomCenterY(r));
+            rooms.add(new Room(center, file.roomPolygon(r)));
+        }
+        List<Wall> walls = new ArrayList<>(file.wallCount());
+        double[] weights = new double[file.wallCount()];
+        Set<Wall> removed = new HashSet<>();
+        for (int w = 0; w < file.wallCount(); w++) {
+            LineSegment line = new LineSegment(file.wallLineStart(w), file.wallLineEnd(w));
+            Wall wall = new Wall(rooms.get(file.wallRoom1(w)), rooms.get(file.wallRoom2(w)), line);
+            walls.add(wall);
+            weights[w] = file.wallWeight(w);
+            if (file.isRemoved(w)) {
+                removed.add(wall);
+            }
+        }
+        return new StoredMaze(Collections.unmodifiableList(rooms), Collections.unmodifiableList(walls),
+            weights, Collections.unmodifiableSet(removed));
+    }
+
+    /**
+     * Maps {@code file} and rebuilds the rooms and walls stored in it.
+     */
+    public static StoredMaze read(Path file) throws IOException {
+        return read(open(file));
+    }
+
+    /**
+     * Reads {@code file} back and checks that it holds exactly the given maze and removed
+     * walls: the same room centers and outlines, wall rooms and lines, bit-identical weights,
+     * and removed set.
+     *
+     * @throws IOException if the file cannot be read or does not match
+     */
+    public static void verify(Path file, KruskalGraph<Room, EdgeWithData<Room, Wall>> maze,
+                              Set<Wall> removedWalls) throws IOException {
+        MappedMazeGraph mapped = open(file);
+        Numbering numbering = new Numbering(maze);
+        if (mapped.roomCount() != numbering.rooms.size() || mapped.wallCount() != numbering.walls.size()) {
+            throw new IOException("Maze file has different room or wall counts: " + file);
+        }
+        for (int r = 0; r < numbering.rooms.size(); r++) {
+            Room room = numbering.rooms.get(r);
+            if (mapped.roomCenterX(r) != room.getCenter().x || mapped.roomCenterY(r) != room.getCenter().y
+                || comparePolygons(mapped.roomPolygon(r), room.getPolygon()) != 0) {
+                throw new IOException("Maze file differs at room " + r + ": " + file);
+            }
+        }
+        for (int w = 0; w < numbering.walls.size(); w++) {
+            EdgeWithData<Room, Wall> edge = numbering.walls.get(w);
+            Wall wall = edge.data();
+            LineSegment line = wall.getDividingLine();
+            if (mapped.wallRoom1(w) != requireId(numbering.roomIds, wall.getRoom1())
+                || mapped.wallRoom2(w) != requireId(numbering.roomIds, wall.getRoom2())
+                || !mapped.wallLineStart(w).equals(line.start) || !mapped.wallLineEnd(w).equals(line.end)
+                || Double.doubleToLongBits(mapped.wallWeight(w)) != Double.doubleToLongBits(edge.weight())
+                || mapped.isRemoved(w) != removedWalls.contains(wall)) {
+                throw new IOException("Maze file differs at wall " + w + ": " + file);
+            }
+        }
+    }
+
+    private static int requireId(Map<Room, Integer> roomIds, Room room) {
+        Integer id = roomIds.get(room);
+        if (id == null) {
+            throw new IllegalArgumentException("Wall borders a room that is not in the graph: " + room);
+        }
+        return id;
+    }
+
+    /**
+     * Maps the given maze file into memory and returns a graph view over it.
+     */
+    public static MappedMazeGraph open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("Not a maze file: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedFile buffer = MappedFile.map(channel, FileChannel.MapMode.READ_ONLY, fileSize);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a maze file: " + file);
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported maze file version " + buffer.getInt(4) + ": " + file);
+            }
+            int roomCount = buffer.getInt(8);
+            int wallCount = buffer.getInt(12);
+            long pointCount = buffer.getLong(16);
+            if (roomCount < 0 || wallCount < 0 || wallCount > Integer.MAX_VALUE / 2
+                || pointCount < 0 || pointCount > fileSize / 8) {
+                throw new IOException("Corrupt maze file: " + file);
+            }
+            Layout layout = new Layout(roomCount, wallCount, pointCount);
+            if (layout.totalBytes != fileSize) {
+                throw new IOException("Corrupt maze file: " + file);
+            }
+            return new MappedMazeGraph(buffer, layout, roomCount, wallCount);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Opt-in operation-level metrics for the data structures.
+ *
+ * Recording is switched on by starting the JVM with {@code -Ddatastructures.metrics=true}.
+ * Every instrumentation site is guarded by {@code if (Metrics.ENABLED)}; since the flag is a
+ * static final constant, the JIT removes the guarded code entirely when it is off.
+ *
+ * While enabled, the totals are also emitted once a second as a
+ * {@link DataStructureStatsEvent} to any running JFR recording, and each hash map resize is
+ * recorded as a {@link MapResizeEvent}.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("datastructures.metrics");
+
+    /** Number of entries in the chain scanned by each ChainedHashMap lookup. */
+    public static final Histogram CHAIN_LENGTH = new Histogram("maps.chainLength");
+    /** Number of ChainedHashMap resizes. */
+    public static final Counter MAP_RESIZES = new Counter("maps.resizes");
+    /** Duration of each ChainedHashMap resize, in nanoseconds. */
+    public static final Histogram MAP_RESIZE_NANOS = new Histogram("maps.resizeNanos");
+    /** Number of occupied slots probed by each OpenAddressingHashMap lookup or insert. */
+    public static final Histogram PROBE_LENGTH = new Histogram("maps.probeLength");
+    /**
+     * Number of swaps made by each ArrayHeapMinPQ or IndexedArrayHeapMinPQ add, removeMin or
+     * changePriority. For IndexedArrayHeapMinPQ, each slot shifted into the hole counts as one.
+     */
+    public static final Histogram HEAP_SWAPS = new Histogram("priorityqueues.swapsPerOperation");
+    /** Number of links followed by each UnionBySizeCompressingDisjointSets find. */
+    public static final Histogram FIND_PATH_LENGTH = new Histogram("disjointsets.findPathLength");
+
+    private static final List<Counter> COUNTERS = List.of(MAP_RESIZES);
+    private static final List<Histogram> HISTOGRAMS =
+        List.of(CHAIN_LENGTH, PROBE_LENGTH, MAP_RESIZE_NANOS, HEAP_SWAPS, FIND_PATH_LENGTH);
+
+    static {
+        if (ENABLED) {
+            FlightRecorder.addPeriodicEvent(DataStructureStatsEvent.class, Metrics::emitStats);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static List<Counter> counters() {
+        return COUNTERS;
+    }
+
+    public static List<Histogram> histograms() {
+        return HISTOGRAMS;
+    }
+
+    public static void reset() {
+        COUNTERS.forEach(Counter::reset);
+        HISTOGRAMS.forEach(Histogram::reset);
+    }
+
+    /**
+     * Returns one line per metric, for logging.
+     */
+    public static List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        COUNTERS.forEach(counter -> lines.add(counter.toString()));
+        HISTOGRAMS.forEach(histogram -> lines.add(histogram.toString()));
+        return Collections.unmodifiableList(lines);
+    }
+
+    private static void emitStats() {
+        DataStructureStatsEvent event = new DataStructureStatsEvent();
+        event.chainLookups = CHAIN_LENGTH.count();
+        event.meanChainLength = CHAIN_LENGTH.mean();
+        event.maxChainLength = CHAIN_LENGTH.max();
+        event.probeLookups = PROBE_LENGTH.count();
+        event.meanProbeLength = PROBE_LENGTH.mean();
+        event.maxProbeLength = PROBE_LENGTH.max();
+        event.mapResizes = MAP_RESIZES.get();
+        event.heapOperations = HEAP_SWAPS.count();
+        event.meanHeapSwaps = HEAP_SWAPS.mean();
+        event.finds = FIND_PATH_LENGTH.count();
+        event.meanFindPathLength = FIND_PATH_LENGTH.mean();
+        event.maxFindPathLength = FIND_PATH_LENGTH.max();
+        event.commit();
+    }
+}
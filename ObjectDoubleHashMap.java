@@ -0,0 +1,164 @@
+package maps;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An open-addressing hash map from objects to primitive {@code double}s.
+ *
+ * Lookups through {@link #getDouble(Object)} return a configurable "absent" value instead of
+ * {@code null}, so a single probe both answers whether a key is present and returns its
+ * value, and nothing is boxed. Pick an absent value that can never be stored, like
+ * {@code Double.POSITIVE_INFINITY} for distances. The boxed {@link Map} methods still work,
+ * and treat the absent value like any other.
+ *
+ * Keys are stored and probed by {@link OpenAddressingTable}, the same table that
+ * {@link OpenAddressingHashMap} uses.
+ *
+ * @see AbstractIterableMap
+ * @see ObjectIntHashMap
+ */
+public class ObjectDoubleHashMap<K> extends OpenAddressingTable<K, Double> {
+    double[] values;
+    private final double absentValue;
+
+    /**
+     * Constructs a new ObjectDoubleHashMap that reports absent keys as {@code NaN}.
+     */
+    public ObjectDoubleHashMap() {
+        this(Double.NaN);
+    }
+
+    /**
+     * Constructs a new ObjectDoubleHashMap with the given absent value.
+     */
+    public ObjectDoubleHashMap(double absentValue) {
+        this(absentValue, DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a new ObjectDoubleHashMap with the given parameters.
+     *
+     * @param absentValue the value {@link #getDouble(Object)} returns for absent keys
+     * @param resizingLoadFactorThreshold the load factor threshold for resizing. Must be in (0, 1).
+     * @param initialCapacity the initial number of slots. Rounded up to a power of two. Must be > 0.
+     */
+    public ObjectDoubleHashMap(double absentValue, double resizingLoadFactorThreshold, int initialCapacity) {
+        super(resizingLoadFactorThreshold, initialCapacity);
+        this.absentValue = absentValue;
+        this.values = new double[keys.length];
+    }
+
+    public double absentValue() {
+        return absentValue;
+    }
+
+    /**
+     * Returns the value for the given key, or the absent value if there is none.
+     */
+    public double getDouble(Object key) {
+        int slot = findSlot(key);
+        return slot < 0 ? absentValue : values[slot];
+    }
+
+    /**
+     * Associates the value with the given key, returning the previous value or the absent
+     * value if there was none.
+     */
+    public double putDouble(K key, double value) {
+        int slot = findOrInsertSlot(key);
+        if (slot >= 0) {
+            double prevValue = values[slot];
+            values[slot] = value;
+            return prevValue;
+        }
+        values[-slot - 1] = value;
+        afterInsert();
+        return absentValue;
+    }
+
+    /**
+     * Removes the given key, returning its value or the absent value if there was none.
+     */
+    public double removeDouble(Object key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return absentValue;
+        }
+        double prevValue = values[slot];
+        deleteSlot(slot);
+        return prevValue;
+    }
+
+    @Override
+    public Double get(Object key) {
+        int slot = findSlot(key);
+        return slot < 0 ? null : values[slot];
+    }
+
+    @Override
+    public Double put(K key, Double value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Values must not be null.");
+        }
+        // The slot itself says whether the key was present, even if its value was the absent value
+        int slot = findOrInsertSlot(key);
+        if (slot >= 0) {
+            double prevValue = values[slot];
+            values[slot] = value;
+            return prevValue;
+        }
+        values[-slot - 1] = value;
+        afterInsert();
+        return null;
+    }
+
+    @Override
+    public Double remove(Object key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        double prevValue = values[slot];
+        deleteSlot(slot);
+        return prevValue;
+    }
+
+    @Override
+    void relocateValues(int[] destinations, int capacity) {
+        double[] oldValues = values;
+        values = new double[capacity];
+        for (int j = 0; j < oldValues.length; j++) {
+            if (destinations[j] >= 0) {
+                values[destinations[j]] = oldValues[j];
+            }
+        }
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = 0.0;
+    }
+
+    @Override
+    void clearValues() {
+        Arrays.fill(values, 0.0);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Map.Entry<K, Double> entryAt(int slot) {
+        return new SimpleEntry<K, Double>((K) keys[slot], values[slot]) {
+            @Override
+            public Double setValue(Double value) {
+                put(getKey(), value);
+                return super.setValue(value);
+            }
+        };
+    }
+}
@@ -0,0 +1,164 @@
+package maps;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An open-addressing hash map from objects to primitive {@code int}s.
+ *
+ * Lookups through {@link #getInt(Object)} return a configurable "absent" value instead of
+ * {@code null}, so a single probe both answers whether a key is present and returns its
+ * value, and nothing is boxed. Pick an absent value that can never be stored, like the
+ * default of -1 when mapping objects to dense indices. The boxed {@link Map} methods still
+ * work, and treat the absent value like any other.
+ *
+ * Keys are stored and probed by {@link OpenAddressingTable}, the same table that
+ * {@link OpenAddressingHashMap} uses.
+ *
+ * @see AbstractIterableMap
+ * @see ObjectDoubleHashMap
+ */
+public class ObjectIntHashMap<K> extends OpenAddressingTable<K, Integer> {
+    int[] values;
+    private final int absentValue;
+
+    /**
+     * Constructs a new ObjectIntHashMap that reports absent keys as -1.
+     */
+    public ObjectIntHashMap() {
+        this(-1);
+    }
+
+    /**
+     * Constructs a new ObjectIntHashMap with the given absent value.
+     */
+    public ObjectIntHashMap(int absentValue) {
+        this(absentValue, DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a new ObjectIntHashMap with the given parameters.
+     *
+     * @param absentValue the value {@link #getInt(Object)} returns for absent keys
+     * @param resizingLoadFactorThreshold the load factor threshold for resizing. Must be in (0, 1).
+     * @param initialCapacity the initial number of slots. Rounded up to a power of two. Must be > 0.
+     */
+    public ObjectIntHashMap(int absentValue, double resizingLoadFactorThreshold, int initialCapacity) {
+        super(resizingLoadFactorThreshold, initialCapacity);
+        this.absentValue = absentValue;
+        this.values = new int[keys.length];
+    }
+
+    public int absentValue() {
+        return absentValue;
+    }
+
+    /**
+     * Returns the value for the given key, or the absent value if there is none.
+     */
+    public int getInt(Object key) {
+        int slot = findSlot(key);
+        return slot < 0 ? absentValue : values[slot];
+    }
+
+    /**
+     * Associates the value with the given key, returning the previous value or the absent
+     * value if there was none.
+     */
+    public int putInt(K key, int value) {
+        int slot = findOrInsertSlot(key);
+        if (slot >= 0) {
+            int prevValue = values[slot];
+            values[slot] = value;
+            return prevValue;
+        }
+        values[-slot - 1] = value;
+        afterInsert();
+        return absentValue;
+    }
+
+    /**
+     * Removes the given key, returning its value or the absent value if there was none.
+     */
+    public int removeInt(Object key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return absentValue;
+        }
+        int prevValue = values[slot];
+        deleteSlot(slot);
+        return prevValue;
+    }
+
+    @Override
+    public Integer get(Object key) {
+        int slot = findSlot(key);
+        return slot < 0 ? null : values[slot];
+    }
+
+    @Override
+    public Integer put(K key, Integer value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Values must not be null.");
+        }
+        // The slot itself says whether the key was present, even if its value was the absent value
+        int slot = findOrInsertSlot(key);
+        if (slot >= 0) {
+            int prevValue = values[slot];
+            values[slot] = value;
+            return prevValue;
+        }
+        values[-slot - 1] = value;
+        afterInsert();
+        return null;
+    }
+
+    @Override
+    public Integer remove(Object key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        int prevValue = values[slot];
+        deleteSlot(slot);
+        return prevValue;
+    }
+
+    @Override
+    void relocateValues(int[] destinations, int capacity) {
+        int[] oldValues = values;
+        values = new int[capacity];
+        for (int j = 0; j < oldValues.length; j++) {
+            if (destinations[j] >= 0) {
+                values[destinations[j]] = oldValues[j];
+            }
+        }
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = 0;
+    }
+
+    @Override
+    void clearValues() {
+        Arrays.fill(values, 0);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Map.Entry<K, Integer> entryAt(int slot) {
+        return new SimpleEntry<K, Integer>((K) keys[slot], values[slot]) {
+            @Override
+            public Integer setValue(Integer value) {
+                put(getKey(), value);
+                return super.setValue(value);
+            }
+        };
+    }
+}
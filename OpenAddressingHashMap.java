@@ -0,0 +1,161 @@
+package maps;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A hash map that stores its keys, values and hashes in flat arrays and resolves collisions
+ * with linear probing.
+ *
+ * The table length is always a power of two and keys are placed by a mixed hash code, so
+ * clustered {@code hashCode}s still spread out. Removal shifts the following run of entries
+ * back instead of leaving tombstones, so lookups never have to skip over deleted slots. The
+ * probing itself lives in {@link OpenAddressingTable}, shared with the primitive-valued maps.
+ *
+ * @see AbstractIterableMap
+ * @see ChainedHashMap
+ * @see Map
+ */
+public class OpenAddressingHashMap<K, V> extends OpenAddressingTable<K, V> {
+    Object[] values;
+
+    /**
+     * Constructs a new OpenAddressingHashMap with default load factor threshold and capacity.
+     */
+    public OpenAddressingHashMap() {
+        this(DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructs a new OpenAddressingHashMap with the given parameters.
+     *
+     * @param resizingLoadFactorThreshold the load factor threshold for resizing. Must be in (0, 1).
+     * @param initialCapacity the initial number of slots. Rounded up to a power of two. Must be > 0.
+     */
+    public OpenAddressingHashMap(double resizingLoadFactorThreshold, int initialCapacity) {
+        super(resizingLoadFactorThreshold, initialCapacity);
+        this.values = new Object[keys.length];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int slot = findSlot(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        int slot = findOrInsertSlot(key);
+        if (slot >= 0) {
+            V prevValue = (V) values[slot];
+            values[slot] = value;
+            return prevValue;
+        }
+        values[-slot - 1] = value;
+        afterInsert();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
+        }
+        V prevValue = (V) values[slot];
+        deleteSlot(slot);
+        return prevValue;
+    }
+
+    @Override
+    void relocateValues(int[] destinations, int capacity) {
+        Object[] oldValues = values;
+        values = new Object[capacity];
+        for (int j = 0; j < oldValues.length; j++) {
+            if (destinations[j] >= 0) {
+                values[destinations[j]] = oldValues[j];
+            }
+        }
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = null;
+    }
+
+    @Override
+    void clearValues() {
+        Arrays.fill(values, null);
+    }
+
+    @Override
+    Map.Entry<K, V> entryAt(int slot) {
+        return new SlotEntry(slot);
+    }
+
+    /**
+     * An entry that reads and writes through to its slot in the table.
+     */
+    private class SlotEntry implements Map.Entry<K, V> {
+        private final K key;
+        private final int slot;
+
+        @SuppressWarnings("unchecked")
+        SlotEntry(int slot) {
+            this.key = (K) keys[slot];
+            this.slot = slot;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return keys[slot] == key ? (V) values[slot] : get(key);
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (keys[slot] == key) {
+                @SuppressWarnings("unchecked")
+                V prevValue = (V) values[slot];
+                values[slot] = value;
+                return prevValue;
+            }
+            return put(key, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+            V value = getValue();
+            return key.equals(other.getKey())
+                && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            V value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+}
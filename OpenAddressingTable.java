@@ -0,0 +1,286 @@
+package maps;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import metrics.Metrics;
+
+/**
+ * The key side of the open-addressing maps: keys and their mixed hashes in flat arrays, linear
+ * probing, resizing, and backward-shift deletion. Subclasses hold the values in a parallel
+ * array of whatever type they store, and are told whenever entries move between slots.
+ *
+ * The table length is always a power of two and keys are placed by a mixed hash code, so
+ * clustered {@code hashCode}s still spread out. Removal shifts the following run of entries
+ * back instead of leaving tombstones, so lookups never have to skip over deleted slots.
+ *
+ * @see OpenAddressingHashMap
+ * @see ObjectDoubleHashMap
+ * @see ObjectIntHashMap
+ */
+abstract class OpenAddressingTable<K, V> extends AbstractIterableMap<K, V> {
+    static final double DEFAULT_RESIZING_LOAD_FACTOR_THRESHOLD = 0.5;
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    Object[] keys;
+    int[] hashes;
+    private final double resizingLoadFactorThreshold;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+    int modCount;
+
+    /**
+     * @param resizingLoadFactorThreshold the load factor threshold for resizing. Must be in (0, 1).
+     * @param initialCapacity the initial number of slots. Rounded up to a power of two. Must be > 0.
+     */
+    OpenAddressingTable(double resizingLoadFactorThreshold, int initialCapacity) {
+        if (resizingLoadFactorThreshold <= 0 || resizingLoadFactorThreshold >= 1) {
+            throw new IllegalArgumentException("Load factor threshold must be in (0, 1).");
+        }
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("Initial capacity must be positive.");
+        }
+        this.resizingLoadFactorThreshold = resizingLoadFactorThreshold;
+        // Subclasses allocate their value array to match keys.length
+        allocateKeys(tableSizeFor(initialCapacity));
+        this.size = 0;
+    }
+
+    /**
+     * Spreads the bits of a hash code so that keys differing only in their high bits (or in a
+     * regular stride, like grid coordinates) still land in different slots of a power-of-two
+     * table.
+     */
+    static int mix(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        if (capacity >= MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Math.max(2, Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1);
+    }
+
+    private void allocateKeys(int capacity) {
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) Math.min(capacity - 1, (long) (capacity * resizingLoadFactorThreshold));
+    }
+
+    /*
+    Value storage, implemented by subclasses
+     */
+
+    /**
+     * Replaces the value array with one of the given capacity, where the value in old slot
+     * {@code i} moves to slot {@code destinations[i]}, or is dropped if that is -1.
+     */
+    abstract void relocateValues(int[] destinations, int capacity);
+
+    abstract void moveValue(int from, int to);
+
+    /**
+     * Drops the value in the slot, so the table doesn't keep it reachable.
+     */
+    abstract void clearValue(int slot);
+
+    /**
+     * Clears every slot's value.
+     */
+    abstract void clearValues();
+
+    /**
+     * Returns an entry for the occupied slot, for iteration.
+     */
+    abstract Map.Entry<K, V> entryAt(int slot);
+
+    /*
+    Slots
+     */
+
+    /**
+     * Returns the slot holding the given key, or -1 if it is absent or null.
+     */
+    final int findSlot(Object key) {
+        if (key == null || size == 0) {
+            return -1;
+        }
+        int hash = mix(key.hashCode());
+        int probes = 0;
+        for (int i = hash & mask; keys[i] != null; i = (i + 1) & mask) {
+            probes++;
+            if (hashes[i] == hash && keys[i].equals(key)) {
+                recordProbeLength(probes);
+                return i;
+            }
+        }
+        recordProbeLength(probes);
+        return -1;
+    }
+
+    /**
+     * Returns the slot holding the given key if it is present. Otherwise claims an empty slot
+     * for it and returns {@code -(slot + 1)}; the caller must store the value there and then
+     * call {@link #afterInsert()}.
+     */
+    final int findOrInsertSlot(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException();
+        }
+        int hash = mix(key.hashCode());
+        int i = hash & mask;
+        int probes = 0;
+        while (keys[i] != null) {
+            probes++;
+            if (hashes[i] == hash && keys[i].equals(key)) {
+                recordProbeLength(probes);
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        recordProbeLength(probes);
+        keys[i] = key;
+        hashes[i] = hash;
+        size++;
+        modCount++;
+        return -(i + 1);
+    }
+
+    /**
+     * Grows the table if the insert just made pushed it past its load factor.
+     */
+    final void afterInsert() {
+        if (size > resizeThreshold) {
+            resize(keys.length * 2);
+        }
+    }
+
+    private static void recordProbeLength(int probes) {
+        if (Metrics.ENABLED) {
+            Metrics.PROBE_LENGTH.record(probes);
+        }
+    }
+
+    private void resize(int newCapacity) {
+        if (keys.length >= MAXIMUM_CAPACITY) {
+            if (size == keys.length - 1) {
+                throw new IllegalStateException("Map is full.");
+            }
+            return;
+        }
+        Object[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] destinations = new int[oldKeys.length];
+        allocateKeys(newCapacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            destinations[j] = -1;
+            if (oldKeys[j] != null) {
+                int i = oldHashes[j] & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                hashes[i] = oldHashes[j];
+                destinations[j] = i;
+            }
+        }
+        relocateValues(destinations, newCapacity);
+    }
+
+    /**
+     * Empties the given slot, then walks the rest of its probe run and shifts back any entry
+     * whose home slot is at or before the hole, so the run stays contiguous.
+     */
+    final void deleteSlot(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (keys[i] == null) {
+                break;
+            }
+            int home = hashes[i] & mask;
+            // The entry at i may move into the hole only if its home is not in (hole, i]
+            boolean canMove = hole <= i ? (home <= hole || home > i) : (home <= hole && home > i);
+            if (canMove) {
+                keys[hole] = keys[i];
+                hashes[hole] = hashes[i];
+                moveValue(i, hole);
+                hole = i;
+            }
+        }
+        keys[hole] = null;
+        hashes[hole] = 0;
+        clearValue(hole);
+        size--;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(hashes, 0);
+        clearValues();
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return findSlot(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new SlotIterator();
+    }
+
+    private class SlotIterator implements Iterator<Map.Entry<K, V>> {
+        private final Object[] iteratedKeys;
+        private final int expectedModCount;
+        private int curr;
+
+        SlotIterator() {
+            this.iteratedKeys = keys;
+            this.expectedModCount = modCount;
+            this.curr = 0;
+            skipEmptySlots();
+        }
+
+        private void skipEmptySlots() {
+            while (curr < iteratedKeys.length && iteratedKeys[curr] == null) {
+                curr++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return curr < iteratedKeys.length;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            Map.Entry<K, V> entry = entryAt(curr);
+            curr++;
+            skipEmptySlots();
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import priorityqueues.ArrayHeapMinPQ;
+import priorityqueues.BucketMinPQ;
+import priorityqueues.DoubleMapMinPQ;
+import priorityqueues.ExtrinsicMinPQ;
+import priorityqueues.IndexedArrayHeapMinPQ;
+import priorityqueues.RadixHeapMinPQ;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the priority queues on add, removeMin and changePriority.
+ *
+ * Every operation here keeps priorities at or above the last removed one, so the monotone
+ * queues (RadixHeapMinPQ and BucketMinPQ) can run the same workload.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriorityQueueBenchmark {
+    @Param({"ArrayHeapMinPQ", "IndexedArrayHeapMinPQ", "DoubleMapMinPQ", "RadixHeapMinPQ", "BucketMinPQ"})
+    public String implementation;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private ExtrinsicMinPQ<Integer> pq;
+    private Integer[] items;
+    private double[] priorities;
+    private Random rand;
+
+    static ExtrinsicMinPQ<Integer> createMinPQ(String implementation) {
+        switch (implementation) {
+            case "ArrayHeapMinPQ":
+                return new ArrayHeapMinPQ<>();
+            case "IndexedArrayHeapMinPQ":
+                return new IndexedArrayHeapMinPQ<>();
+            case "DoubleMapMinPQ":
+                return new DoubleMapMinPQ<>();
+            case "RadixHeapMinPQ":
+                return new RadixHeapMinPQ<>();
+            case "BucketMinPQ":
+                return new BucketMinPQ<>(1.0 / 64);
+            default:
+                throw new IllegalArgumentException("Unknown priority queue: " + implementation);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        rand = new Random(373);
+        pq = createMinPQ(implementation);
+        items = new Integer[size];
+        priorities = new double[size];
+        for (int i = 0; i < size; i++) {
+            items[i] = i;
+            priorities[i] = rand.nextDouble();
+            pq.add(items[i], priorities[i]);
+        }
+    }
+
+    @Benchmark
+    public Integer removeMinThenAdd() {
+        // Like a Dijkstra relaxation: re-add at the removed priority plus a random weight
+        Integer min = pq.removeMin();
+        priorities[min] += rand.nextDouble();
+        pq.add(min, priorities[min]);
+        return min;
+    }
+
+    @Benchmark
+    public void changePriority() {
+        // Nothing is removed in this benchmark, so any non-negative priority is allowed
+        int i = rand.nextInt(size);
+        priorities[i] = rand.nextDouble();
+        pq.changePriority(items[i], priorities[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public int fillAndDrain() {
+        ExtrinsicMinPQ<Integer> fresh = createMinPQ(implementation);
+        for (int i = 0; i < size; i++) {
+            fresh.add(items[i], priorities[i]);
+        }
+        int checksum = 0;
+        while (!fresh.isEmpty()) {
+            checksum += fresh.removeMin();
+        }
+        return checksum;
+    }
+}
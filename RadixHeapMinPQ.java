@@ -0,0 +1,170 @@
+package priorityqueues;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import maps.OpenAddressingHashMap;
+
+/**
+ * A monotone priority queue: a radix heap over non-negative double priorities.
+ *
+ * Priorities are compared through their IEEE 754 bit patterns, which sort the same way as the
+ * values themselves for non-negative doubles. An item lives in bucket {@code b} when the
+ * highest bit in which its priority differs from the last removed priority is bit
+ * {@code b - 1}, so each item moves to a lower bucket at most 64 times over its lifetime, and
+ * all operations are amortized O(1) apart from the bucket scan in {@code removeMin}.
+ *
+ * The catch is that priorities may never drop below the last removed priority. That holds
+ * for Dijkstra's algorithm with non-negative edge weights (and A* with a consistent
+ * heuristic); adding or changing to a smaller priority throws an
+ * {@link IllegalArgumentException}.
+ *
+ * @see ExtrinsicMinPQ
+ */
+public class RadixHeapMinPQ<T> implements ExtrinsicMinPQ<T> {
+    private static final int BUCKET_COUNT = 65;
+
+    private final List<List<Node<T>>> buckets;
+    private final OpenAddressingHashMap<T, Node<T>> nodes;
+    private long last;
+    private int size;
+
+    public RadixHeapMinPQ() {
+        this.buckets = new ArrayList<>(BUCKET_COUNT);
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.nodes = new OpenAddressingHashMap<>();
+        this.last = 0;
+        this.size = 0;
+    }
+
+    private static class Node<T> {
+        final T item;
+        double priority;
+        long key;
+        int bucket;
+        int index;
+
+        Node(T item) {
+            this.item = item;
+        }
+    }
+
+    private long keyFor(double priority) {
+        if (!(priority >= 0)) {
+            throw new IllegalArgumentException("Priorities must be non-negative: " + priority);
+        }
+        // Adding 0.0 turns -0.0 into 0.0
+        long key = Double.doubleToLongBits(priority + 0.0);
+        if (key < last) {
+            throw new IllegalArgumentException("Priority " + priority + " is below the last removed priority "
+                + Double.longBitsToDouble(last));
+        }
+        return key;
+    }
+
+    private int bucketFor(long key) {
+        return key == last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void insert(Node<T> node) {
+        List<Node<T>> bucket = buckets.get(bucketFor(node.key));
+        node.bucket = bucketFor(node.key);
+        node.index = bucket.size();
+        bucket.add(node);
+    }
+
+    private void detach(Node<T> node) {
+        List<Node<T>> bucket = buckets.get(node.bucket);
+        Node<T> moved = bucket.remove(bucket.size() - 1);
+        if (moved != node) {
+            bucket.set(node.index, moved);
+            moved.index = node.index;
+        }
+    }
+
+    @Override
+    public void add(T item, double priority) {
+        if (contains(item)) {
+            throw new IllegalArgumentException("This item exists!");
+        }
+        Node<T> node = new Node<>(item);
+        node.key = keyFor(priority);
+        node.priority = priority;
+        insert(node);
+        nodes.put(item, node);
+        size++;
+    }
+
+    @Override
+    public boolean contains(T item) {
+        return nodes.containsKey(item);
+    }
+
+    @Override
+    public T peekMin() {
+        if (size == 0) {
+            throw new NoSuchElementException("Priority Queue is empty.");
+        }
+        List<Node<T>> bucket = refillFirstBucket();
+        return bucket.get(bucket.size() - 1).item;
+    }
+
+    @Override
+    public T removeMin() {
+        if (size == 0) {
+            throw new NoSuchElementException("Priority Queue is empty.");
+        }
+        List<Node<T>> bucket = refillFirstBucket();
+        Node<T> node = bucket.remove(bucket.size() - 1);
+        nodes.remove(node.item);
+        size--;
+        return node.item;
+    }
+
+    /**
+     * Makes sure bucket 0 holds the minimum, by finding the first non-empty bucket, advancing
+     * {@code last} to its smallest key and redistributing its items into lower buckets.
+     */
+    private List<Node<T>> refillFirstBucket() {
+        List<Node<T>> first = buckets.get(0);
+        if (!first.isEmpty()) {
+            return first;
+        }
+        int b = 1;
+        while (buckets.get(b).isEmpty()) {
+            b++;
+        }
+        List<Node<T>> bucket = buckets.get(b);
+        long min = Long.MAX_VALUE;
+        for (Node<T> node : bucket) {
+            min = Math.min(min, node.key);
+        }
+        last = min;
+        List<Node<T>> redistributed = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Node<T> node : redistributed) {
+            insert(node);
+        }
+        return first;
+    }
+
+    @Override
+    public void changePriority(T item, double priority) {
+        Node<T> node = nodes.get(item);
+        if (node == null) {
+            throw new NoSuchElementException("Item not found in Priority Queue.");
+        }
+        long key = keyFor(priority);
+        detach(node);
+        node.key = key;
+        node.priority = priority;
+        insert(node);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
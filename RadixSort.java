@@ -0,0 +1,54 @@
+package mazes.logic.carvers;
+
+import java.util.Arrays;
+
+/**
+ * A stable LSD radix sort for non-negative {@code long} keys, used by the carvers to order
+ * walls by their random weights without boxing.
+ */
+final class RadixSort {
+    private static final int DIGIT_BITS = 11;
+    private static final int RADIX = 1 << DIGIT_BITS;
+    private static final int DIGIT_MASK = RADIX - 1;
+
+    private RadixSort() {
+    }
+
+    /**
+     * Returns the indices {@code [0, n)} ordered by {@code keys[index]}, keeping equal keys in
+     * index order. All keys must be non-negative.
+     */
+    static int[] sortedOrder(long[] keys, int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        long maxKey = 0;
+        for (int i = 0; i < n; i++) {
+            maxKey |= keys[i];
+        }
+        int[] buffer = new int[n];
+        int[] counts = new int[RADIX + 1];
+        for (int shift = 0; shift < Long.SIZE && (maxKey >>> shift) != 0; shift += DIGIT_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                counts[(int) ((keys[order[i]] >>> shift) & DIGIT_MASK) + 1]++;
+            }
+            if (counts[(int) ((keys[order[0]] >>> shift) & DIGIT_MASK) + 1] == n) {
+                // Every key has the same digit here; this pass wouldn't move anything
+                continue;
+            }
+            for (int digit = 0; digit < RADIX; digit++) {
+                counts[digit + 1] += counts[digit];
+            }
+            for (int i = 0; i < n; i++) {
+                int index = order[i];
+                buffer[counts[(int) ((keys[index] >>> shift) & DIGIT_MASK)]++] = index;
+            }
+            int[] temp = order;
+            order = buffer;
+            buffer = temp;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,18 @@
+package mazes.logic;
+
+import graphs.shortestpaths.Heuristic;
+import mazes.entities.Room;
+
+/**
+ * Estimates the distance between two rooms as the straight-line distance between their centers.
+ *
+ * Maze edge weights are the distances between adjacent room centers, so by the triangle
+ * inequality this never overestimates and is consistent. (Manhattan distance would overestimate
+ * whenever a path runs diagonally, so it is not admissible here.)
+ */
+public class RoomDistanceHeuristic implements Heuristic<Room> {
+    @Override
+    public double estimate(Room vertex, Room goal) {
+        return vertex.getCenter().distance(goal.getCenter());
+    }
+}
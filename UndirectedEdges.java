@@ -0,0 +1,50 @@
+package graphs.shortestpaths;
+
+import graphs.BaseEdge;
+import graphs.Graph;
+
+/**
+ * Helpers for finders that walk an undirected graph backwards.
+ *
+ * {@code Graph} only exposes outgoing edges, so a backward search from {@code end} relaxes
+ * the edge {@code v -> u} as if it were {@code u -> v}. That is only valid when the graph is
+ * symmetric (every edge has a reverse twin of the same weight), which holds for mazes.
+ */
+final class UndirectedEdges {
+    private UndirectedEdges() {
+    }
+
+    /**
+     * Returns the lightest edge from {@code from} to {@code to}.
+     *
+     * @throws IllegalArgumentException if there is no such edge, i.e. the graph is not symmetric
+     */
+    static <V, E extends BaseEdge<V, E>> E edgeBetween(Graph<V, E> graph, V from, V to) {
+        E best = null;
+        for (E edge : graph.outgoingEdgesFrom(from)) {
+            if (edge.to().equals(to) && (best == null || edge.weight() < best.weight())) {
+                best = edge;
+            }
+        }
+        if (best == null) {
+            throw new IllegalArgumentException("Graph is not symmetric: no edge " + from + " -> " + to);
+        }
+        return best;
+    }
+
+    /**
+     * Returns the reverse twin of {@code edge}: an edge from its target back to its source,
+     * with the same weight.
+     *
+     * @throws IllegalArgumentException if there is no such edge, i.e. the graph is not symmetric
+     */
+    static <V, E extends BaseEdge<V, E>> E reverseOf(Graph<V, E> graph, E edge) {
+        for (E candidate : graph.outgoingEdgesFrom(edge.to())) {
+            if (candidate.to().equals(edge.from()) && candidate.weight() == edge.weight()) {
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("Graph is not symmetric: no edge " + edge.to() + " -> "
+            + edge.from() + " of weight " + edge.weight());
+    }
+}
@@ -3,6 +3,7 @@ package disjointsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import metrics.Metrics;
 
 public class UnionBySizeCompressingDisjointSets<T> implements DisjointSets<T> {
     List<Integer> pointers;
@@ -28,9 +29,21 @@ public class UnionBySizeCompressingDisjointSets<T> implements DisjointSets<T> {
         if (index == null) {
             throw new IllegalArgumentException("Item is not in any set.");
         }
+        if (Metrics.ENABLED) {
+            Metrics.FIND_PATH_LENGTH.record(pathLength(index));
+        }
         return findSet(index);
     }
 
+    private int pathLength(int index) {
+        int length = 0;
+        while (pointers.get(index) >= 0) {
+            index = pointers.get(index);
+            length++;
+        }
+        return length;
+    }
+
     private int findSet(int index) {
         if (pointers.get(index) < 0) {
             return index;
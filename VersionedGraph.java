@@ -0,0 +1,13 @@
+package graphs;
+
+/**
+ * A graph that can change, and counts its changes.
+ *
+ * Anything that caches results computed from a graph (like
+ * {@code graphs.shortestpaths.CachingShortestPathFinder}) compares versions to tell whether
+ * a cached result is still valid, so implementations must return a different value after
+ * every change to their vertices, edges or weights.
+ */
+public interface VersionedGraph {
+    long version();
+}